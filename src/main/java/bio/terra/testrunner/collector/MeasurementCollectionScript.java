@@ -1,10 +1,16 @@
 package bio.terra.testrunner.collector;
 
 import bio.terra.testrunner.common.BasicStatistics;
+import bio.terra.testrunner.common.StreamingStatistics;
 import bio.terra.testrunner.runner.config.ServerSpecification;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -57,6 +63,7 @@ public abstract class MeasurementCollectionScript<T> {
     this.description = description;
     this.saveRawDataPoints = saveRawDataPoints;
     this.dataPoints = new ArrayList<>();
+    this.streamingStatistics = new StreamingStatistics();
   }
 
   /**
@@ -72,6 +79,46 @@ public abstract class MeasurementCollectionScript<T> {
   /** The class generic parameter specifies the type of a single raw data point. */
   protected List<T> dataPoints;
 
+  /**
+   * Statistics of the values passed to {@link #recordDataPoint}. Sub-classes that record their data
+   * points that way can set the statistics property of the summary from these.
+   */
+  protected StreamingStatistics streamingStatistics;
+
+  // raw data points passed to recordDataPoint, written out as they arrive if they are saved
+  private Path rawDataPointsSpillFile;
+  private SequenceWriter rawDataPointsSpillWriter;
+
+  /**
+   * Record a single raw data point as it is downloaded, instead of adding it to the data points
+   * list. Its value is folded into {@link #streamingStatistics}, and the data point itself is only
+   * kept if the raw data points are saved, in a temporary file rather than in memory. This keeps
+   * the memory use bounded for high-resolution data over long time intervals.
+   *
+   * @param dataPoint the raw data point
+   * @param value the value of the data point to calculate the statistics on
+   * @throws RuntimeException if the data point cannot be written to the temporary file. This is
+   *     unchecked so that this can be called from the consumer of a streaming download.
+   */
+  protected void recordDataPoint(T dataPoint, double value) {
+    streamingStatistics.addValue(value);
+    if (saveRawDataPoints) {
+      try {
+        if (rawDataPointsSpillWriter == null) {
+          rawDataPointsSpillFile = Files.createTempFile("measurement-data-points", ".json");
+          rawDataPointsSpillFile.toFile().deleteOnExit();
+          rawDataPointsSpillWriter =
+              new ObjectMapper()
+                  .writerWithDefaultPrettyPrinter()
+                  .writeValuesAsArray(rawDataPointsSpillFile.toFile());
+        }
+        rawDataPointsSpillWriter.write(dataPoint);
+      } catch (IOException ioEx) {
+        throw new RuntimeException("Error writing raw data point to temporary file", ioEx);
+      }
+    }
+  }
+
   /**
    * Download the raw data points generated during this test run. Then process them to calculate
    * reporting statistics of interest. Sub-classes must populate the statistics property of this
@@ -88,6 +135,14 @@ public abstract class MeasurementCollectionScript<T> {
 
   /** Write the raw data points generated during this test run to a String. */
   public void writeRawDataPointsToFile(File outputFile) throws Exception {
+    // the data points passed to recordDataPoint are already in a file
+    if (rawDataPointsSpillWriter != null) {
+      rawDataPointsSpillWriter.close();
+      Files.move(rawDataPointsSpillFile, outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      rawDataPointsSpillWriter = null;
+      return;
+    }
+
     // use Jackson to map the object to a JSON-formatted text block
     ObjectMapper objectMapper = new ObjectMapper();
 
@@ -10,12 +10,23 @@ import bio.terra.testrunner.runner.config.TestConfiguration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,35 +54,117 @@ public class MeasurementCollector {
   private static final String measurementSummariesFileName = "SUMMARY_measurementCollection.json";
 
   protected void executeMeasurementList(Path outputDirectory) throws Exception {
-    // loop through the measurement script specifications
-    for (MeasurementCollectionScriptSpecification specification :
-        measurementList.measurementCollectionScripts) {
-      // setup an instance of each measurement script class
-      MeasurementCollectionScript script = specification.scriptClassInstance();
-      script.initialize(server, specification.description, specification.saveRawDataPoints);
-      script.setParametersMap(specification.parametersMap);
-
-      // download raw data points and process them
-      logger.info("Executing measurement collection script: {}", specification.description);
-      script.processDataPoints(startTime, endTime);
-      summaries.add(script.getSummaryStatistics());
-
-      // write the full set of measurement data points to a file
-      if (specification.saveRawDataPoints) {
-        File measurementDataPointsFile =
-            outputDirectory
-                .resolve(
-                    measurementDataPointsFileName.replace(
-                        ".json", "_[" + script.description + "].json"))
-                .toFile();
-        script.writeRawDataPointsToFile(measurementDataPointsFile);
-        logger.info(
-            "All measurement data points from {} written to file: {}",
-            specification.name,
-            measurementDataPointsFile.getName());
+    // run the measurement collection scripts in parallel. each one is interrupted if it runs past
+    // its timeout, if any, counted from when it starts rather than from when it is queued.
+    // cancelling a script only interrupts its thread, so a script that ignores the interrupt keeps
+    // running. the threads are daemons, so such a script does not stop the JVM from exiting
+    List<MeasurementCollectionScriptSpecification> specifications =
+        measurementList.measurementCollectionScripts;
+    int poolSize =
+        Math.max(1, Math.min(measurementList.maxConcurrentMeasurements, specifications.size()));
+    ExecutorService threadPool =
+        Executors.newFixedThreadPool(poolSize, daemonThreadFactory("measurement-collection"));
+    ScheduledExecutorService timeoutThreadPool =
+        Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("measurement-timeout"));
+    List<FutureTask<MeasurementCollectionScript.MeasurementResultSummary>> tasks =
+        new ArrayList<>();
+    try {
+      for (MeasurementCollectionScriptSpecification specification : specifications) {
+        FutureTask<MeasurementCollectionScript.MeasurementResultSummary> task =
+            new FutureTask<>(() -> executeMeasurement(specification, outputDirectory));
+        Long timeoutSeconds =
+            specification.timeoutSeconds == null
+                ? measurementList.measurementTimeoutSeconds
+                : specification.timeoutSeconds;
+        threadPool.execute(
+            () -> {
+              ScheduledFuture<?> timeout =
+                  timeoutSeconds == null
+                      ? null
+                      : timeoutThreadPool.schedule(
+                          () -> task.cancel(true), timeoutSeconds, TimeUnit.SECONDS);
+              try {
+                task.run();
+              } finally {
+                if (timeout != null) {
+                  timeout.cancel(false);
+                }
+              }
+            });
+        tasks.add(task);
       }
+
+      // keep the summaries in the order of the measurement list, regardless of which finish first
+      List<String> failedMeasurements = new ArrayList<>();
+      for (int ctr = 0; ctr < tasks.size(); ctr++) {
+        String description = specifications.get(ctr).description;
+        try {
+          summaries.add(tasks.get(ctr).get());
+        } catch (CancellationException cancelEx) {
+          logger.error("Measurement collection script timed out: {}", description);
+          failedMeasurements.add(description + " (timed out)");
+        } catch (ExecutionException execEx) {
+          logger.error("Measurement collection script failed: {}", description, execEx.getCause());
+          failedMeasurements.add(description);
+        }
+      }
+      writeSummaries(outputDirectory);
+
+      if (!failedMeasurements.isEmpty()) {
+        throw new RuntimeException(
+            "Measurement collection scripts did not finish: " + failedMeasurements);
+      }
+    } finally {
+      threadPool.shutdownNow();
+      timeoutThreadPool.shutdownNow();
+    }
+  }
+
+  private static ThreadFactory daemonThreadFactory(String threadNamePrefix) {
+    AtomicInteger threadCount = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * Run a single measurement collection script, and write out its raw data points if requested.
+   *
+   * @return the summary statistics of the measurement
+   */
+  private MeasurementCollectionScript.MeasurementResultSummary executeMeasurement(
+      MeasurementCollectionScriptSpecification specification, Path outputDirectory)
+      throws Exception {
+    // setup an instance of each measurement script class
+    MeasurementCollectionScript script = specification.scriptClassInstance();
+    script.initialize(server, specification.description, specification.saveRawDataPoints);
+    script.setParametersMap(specification.parametersMap);
+
+    // download raw data points and process them
+    logger.info("Executing measurement collection script: {}", specification.description);
+    script.processDataPoints(startTime, endTime);
+
+    // write the full set of measurement data points to a file
+    if (specification.saveRawDataPoints) {
+      File measurementDataPointsFile =
+          outputDirectory
+              .resolve(
+                  measurementDataPointsFileName.replace(
+                      ".json", "_[" + script.description + "].json"))
+              .toFile();
+      script.writeRawDataPointsToFile(measurementDataPointsFile);
+      logger.info(
+          "All measurement data points from {} written to file: {}",
+          specification.name,
+          measurementDataPointsFile.getName());
     }
+    return script.getSummaryStatistics();
+  }
 
+  /** Write the summaries of the measurements that finished to the log and the output directory. */
+  private void writeSummaries(Path outputDirectory) throws IOException {
     // write the measurement summaries to info
     ObjectMapper objectMapper = new ObjectMapper();
     ObjectWriter objectWriter = objectMapper.writerWithDefaultPrettyPrinter();
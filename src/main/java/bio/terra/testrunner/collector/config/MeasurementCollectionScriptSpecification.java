@@ -21,6 +21,9 @@ public class MeasurementCollectionScriptSpecification implements SpecificationIn
 
   public boolean saveRawDataPoints;
 
+  // (optional) overrides the measurement list's measurementTimeoutSeconds for this script
+  public Long timeoutSeconds;
+
   private MeasurementCollectionScript scriptClassInstance;
 
   public static final String scriptsPackage = "scripts.measurementcollectionscripts";
@@ -36,6 +39,10 @@ public class MeasurementCollectionScriptSpecification implements SpecificationIn
    * is converted into a Java class reference.
    */
   public void validate() {
+    if (timeoutSeconds != null && timeoutSeconds <= 0) {
+      throw new IllegalArgumentException(
+          "Measurement collection script timeout must be >0 seconds: " + name);
+    }
     try {
       Class<?> scriptClassGeneric = Class.forName(scriptsPackage + "." + name);
       Class<? extends MeasurementCollectionScript> scriptClass =
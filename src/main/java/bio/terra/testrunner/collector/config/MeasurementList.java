@@ -14,6 +14,13 @@ public class MeasurementList {
   public String description = "";
   public List<MeasurementCollectionScriptSpecification> measurementCollectionScripts;
 
+  // (optional) maximum number of measurement collection scripts to run at the same time
+  public int maxConcurrentMeasurements = 4;
+
+  // (optional) time a measurement collection script may run for before it is interrupted, unless
+  // its specification sets its own timeout. null for no timeout
+  public Long measurementTimeoutSeconds;
+
   public static final String resourceDirectory = "measurementlists";
 
   MeasurementList() {}
@@ -43,6 +50,12 @@ public class MeasurementList {
    */
   public void validate() {
     logger.debug("Validating the measurement collection script specifications");
+    if (maxConcurrentMeasurements < 1) {
+      throw new IllegalArgumentException("Maximum concurrent measurements must be >=1");
+    }
+    if (measurementTimeoutSeconds != null && measurementTimeoutSeconds <= 0) {
+      throw new IllegalArgumentException("Measurement timeout must be >0 seconds");
+    }
     for (MeasurementCollectionScriptSpecification script : measurementCollectionScripts) {
       script.validate();
     }
@@ -1,6 +1,7 @@
 package bio.terra.testrunner.common;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.HdrHistogram.AbstractHistogram;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 
 @SuppressFBWarnings(
@@ -13,8 +14,11 @@ public class BasicStatistics {
   public double mean;
   public double standardDeviation;
   public double median;
+  public double percentile90;
   public double percentile95;
   public double percentile99;
+  public double percentile999;
+  public double percentile9999;
   public double sum;
 
   public BasicStatistics() {}
@@ -29,10 +33,76 @@ public class BasicStatistics {
     stats.mean = descriptiveStatistics.getMean();
     stats.standardDeviation = descriptiveStatistics.getStandardDeviation();
     stats.median = descriptiveStatistics.getPercentile(50);
+    stats.percentile90 = descriptiveStatistics.getPercentile(90);
     stats.percentile95 = descriptiveStatistics.getPercentile(95);
     stats.percentile99 = descriptiveStatistics.getPercentile(99);
+    stats.percentile999 = descriptiveStatistics.getPercentile(99.9);
+    stats.percentile9999 = descriptiveStatistics.getPercentile(99.99);
     stats.sum = descriptiveStatistics.getSum();
 
     return stats;
   }
+
+  /**
+   * Utility method to call standard statistics calculation methods on a histogram. Unlike {@link
+   * DescriptiveStatistics}, a histogram uses a fixed amount of memory regardless of the number of
+   * values, so this is preferred for large data sets. The percentiles are accurate to the precision
+   * of the histogram; the mean, standard deviation and sum are approximated from the bucket values.
+   *
+   * @param histogram the histogram of recorded values
+   * @param valueUnitsPerStatisticUnit divisor to convert the recorded values to the units of the
+   *     statistics (e.g. 1e6 to convert values recorded in nanoseconds to milliseconds)
+   * @return the statistics, all NaN except for a sum of 0 if the histogram is empty
+   */
+  public static BasicStatistics calculateStandardStatistics(
+      AbstractHistogram histogram, double valueUnitsPerStatisticUnit) {
+    return calculateStandardStatistics(
+        histogram, histogram.getMean() * histogram.getTotalCount(), valueUnitsPerStatisticUnit);
+  }
+
+  /**
+   * Utility method to call standard statistics calculation methods on a histogram, when the exact
+   * sum of the recorded values is also known. The mean and sum are exact; the percentiles and
+   * standard deviation are as accurate as the histogram.
+   *
+   * @param histogram the histogram of recorded values
+   * @param sumOfValues the sum of the recorded values, in the units they were recorded in
+   * @param valueUnitsPerStatisticUnit divisor to convert the recorded values to the units of the
+   *     statistics (e.g. 1e6 to convert values recorded in nanoseconds to milliseconds)
+   * @return the statistics, all NaN except for a sum of 0 if the histogram is empty
+   */
+  public static BasicStatistics calculateStandardStatistics(
+      AbstractHistogram histogram, double sumOfValues, double valueUnitsPerStatisticUnit) {
+    BasicStatistics stats = new BasicStatistics();
+    long count = histogram.getTotalCount();
+    if (count == 0) {
+      // the same as for an empty DescriptiveStatistics, so that no latency reads as 0 ms
+      stats.min = Double.NaN;
+      stats.max = Double.NaN;
+      stats.mean = Double.NaN;
+      stats.standardDeviation = Double.NaN;
+      stats.median = Double.NaN;
+      stats.percentile90 = Double.NaN;
+      stats.percentile95 = Double.NaN;
+      stats.percentile99 = Double.NaN;
+      stats.percentile999 = Double.NaN;
+      stats.percentile9999 = Double.NaN;
+      stats.sum = 0;
+      return stats;
+    }
+
+    stats.max = histogram.getMaxValue() / valueUnitsPerStatisticUnit;
+    stats.min = histogram.getMinValue() / valueUnitsPerStatisticUnit;
+    stats.mean = sumOfValues / count / valueUnitsPerStatisticUnit;
+    stats.standardDeviation = histogram.getStdDeviation() / valueUnitsPerStatisticUnit;
+    stats.median = histogram.getValueAtPercentile(50) / valueUnitsPerStatisticUnit;
+    stats.percentile90 = histogram.getValueAtPercentile(90) / valueUnitsPerStatisticUnit;
+    stats.percentile95 = histogram.getValueAtPercentile(95) / valueUnitsPerStatisticUnit;
+    stats.percentile99 = histogram.getValueAtPercentile(99) / valueUnitsPerStatisticUnit;
+    stats.percentile999 = histogram.getValueAtPercentile(99.9) / valueUnitsPerStatisticUnit;
+    stats.percentile9999 = histogram.getValueAtPercentile(99.99) / valueUnitsPerStatisticUnit;
+    stats.sum = sumOfValues / valueUnitsPerStatisticUnit;
+
+    return stats;
+  }
 }
@@ -0,0 +1,99 @@
+package bio.terra.testrunner.common;
+
+import bio.terra.testrunner.common.utils.HistogramUtils;
+import org.HdrHistogram.DoubleHistogram;
+
+/**
+ * Folds values into summary statistics one at a time, without keeping the values. The count, min,
+ * max, sum, mean and standard deviation are exact. The percentiles come from histograms, so they
+ * are accurate to {@link HistogramUtils#numberOfSignificantValueDigits} significant digits. The
+ * memory used depends on the range of the values, not on how many there are, so this is preferred
+ * over {@link org.apache.commons.math3.stat.descriptive.DescriptiveStatistics} for large data sets.
+ *
+ * <p>Values that are NaN or infinite are skipped. This class is not thread-safe.
+ */
+public class StreamingStatistics {
+  // the histograms only hold non-negative values, so negative values are recorded as their
+  // magnitude in a separate one
+  private final DoubleHistogram positiveHistogram =
+      new DoubleHistogram(HistogramUtils.numberOfSignificantValueDigits);
+  private final DoubleHistogram negativeHistogram =
+      new DoubleHistogram(HistogramUtils.numberOfSignificantValueDigits);
+
+  private long count;
+  private double min = Double.NaN;
+  private double max = Double.NaN;
+  private double sum;
+  // running mean and sum of squared differences from the mean (Welford's algorithm)
+  private double mean;
+  private double sumSquaredDifferences;
+
+  /**
+   * Add a value to the statistics.
+   *
+   * @param value the value, skipped if it is NaN or infinite
+   */
+  public void addValue(double value) {
+    if (!Double.isFinite(value)) {
+      return;
+    }
+    if (value < 0) {
+      negativeHistogram.recordValue(-value);
+    } else {
+      positiveHistogram.recordValue(value);
+    }
+
+    count++;
+    min = count == 1 ? value : Math.min(min, value);
+    max = count == 1 ? value : Math.max(max, value);
+    sum += value;
+    double difference = value - mean;
+    mean += difference / count;
+    sumSquaredDifferences += difference * (value - mean);
+  }
+
+  /** Getter for the number of values added. */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Calculate the standard statistics of the values added so far. The standard deviation is the
+   * sample standard deviation, as calculated from a {@code DescriptiveStatistics} by {@link
+   * BasicStatistics}.
+   *
+   * @return the statistics, all NaN if no values were added
+   */
+  public BasicStatistics calculateStandardStatistics() {
+    BasicStatistics stats = new BasicStatistics();
+
+    stats.min = min;
+    stats.max = max;
+    stats.mean = count == 0 ? Double.NaN : mean;
+    stats.standardDeviation =
+        count == 0 ? Double.NaN : count == 1 ? 0 : Math.sqrt(sumSquaredDifferences / (count - 1));
+    stats.median = getValueAtPercentile(50);
+    stats.percentile90 = getValueAtPercentile(90);
+    stats.percentile95 = getValueAtPercentile(95);
+    stats.percentile99 = getValueAtPercentile(99);
+    stats.percentile999 = getValueAtPercentile(99.9);
+    stats.percentile9999 = getValueAtPercentile(99.99);
+    stats.sum = sum;
+
+    return stats;
+  }
+
+  private double getValueAtPercentile(double percentile) {
+    if (count == 0) {
+      return Double.NaN;
+    }
+    // the negative values come first, largest magnitude first
+    long negativeCount = negativeHistogram.getTotalCount();
+    double rank = percentile / 100.0 * count;
+    if (rank <= negativeCount) {
+      return -negativeHistogram.getValueAtPercentile(100.0 - 100.0 * rank / negativeCount);
+    }
+    return positiveHistogram.getValueAtPercentile(
+        100.0 * (rank - negativeCount) / positiveHistogram.getTotalCount());
+  }
+}
@@ -0,0 +1,27 @@
+package bio.terra.testrunner.common.commands;
+
+import bio.terra.testrunner.runner.TestRunner;
+
+/**
+ * Entry point of a worker process in a distributed test run. The coordinator starts these, users
+ * should not need to call it directly.
+ */
+public class RunWorker {
+  public static void main(String[] args) throws Exception {
+    if (args.length == 5) { // execute a worker's partition of a test configuration
+      boolean isFailure =
+          TestRunner.runWorker(
+              args[0],
+              args[1],
+              Integer.parseInt(args[2]),
+              Integer.parseInt(args[3]),
+              Long.parseLong(args[4]));
+      if (isFailure) {
+        System.exit(1);
+      }
+    } else { // if invalid number of args specified, print help
+      PrintHelp.printHelp();
+      System.exit(2);
+    }
+  }
+}
@@ -1,15 +1,21 @@
 package bio.terra.testrunner.common.commands;
 
+import bio.terra.testrunner.common.utils.GoogleClientRegistry;
 import bio.terra.testrunner.uploader.ResultUploader;
 
 public class UploadResults {
   public static void main(String[] args) throws Exception {
-    if (args.length == 2) { // upload results
-      String uploadListFileName = args[0];
-      String outputDirName = args[1];
-      ResultUploader.uploadResults(uploadListFileName, outputDirName);
-    } else { // if no args specified or invalid number of args specified, print help
-      PrintHelp.printHelp();
+    try {
+      if (args.length == 2) { // upload results
+        String uploadListFileName = args[0];
+        String outputDirName = args[1];
+        ResultUploader.uploadResults(uploadListFileName, outputDirName);
+      } else { // if no args specified or invalid number of args specified, print help
+        PrintHelp.printHelp();
+      }
+    } finally {
+      // close the Google API clients shared by the collectors and uploaders
+      GoogleClientRegistry.closeAll();
     }
   }
 }
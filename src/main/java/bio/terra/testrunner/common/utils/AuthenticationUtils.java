@@ -8,12 +8,35 @@ import com.google.auth.oauth2.ServiceAccountCredentials;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public final class AuthenticationUtils {
+  private static final Logger logger = LoggerFactory.getLogger(AuthenticationUtils.class);
 
   private AuthenticationUtils() {}
 
+  // the service account and delegated user credentials are built once per key file, user and
+  // scopes, and shared by all the threads that ask for them.
+  // key = [credential type, key file path, (user email,) scopes]
+  private static final Map<List<Object>, CachedCredential> credentialCache =
+      new ConcurrentHashMap<>();
+
+  // a background thread refreshes the cached access tokens that are about to expire, so that user
+  // journeys don't block on a token refresh. it is started when the first credential is cached.
+  // credentials that haven't been asked for within about one token lifetime are not refreshed, so
+  // the thread stops calling the token endpoint once a run no longer uses them
+  private static final long secondsBeforeExpiryToRefresh = 300;
+  private static final long secondsBetweenRefreshChecks = 30;
+  private static final long secondsIdleBeforeRefreshStops = 3600;
+  private static ScheduledExecutorService credentialRefreshThread;
+
   // the list of scopes we request from end users when they log in. this should always match exactly
   // what the UI requests, so our tests represent actual user behavior
   public static final List<String> userLoginScopes = List.of("openid", "email", "profile");
@@ -30,15 +53,29 @@ public final class AuthenticationUtils {
    *
    * <p>This credential is used, for example, with the Harry Potter users.
    *
+   * <p>The credential is built once for each user and set of scopes, and its access token is
+   * refreshed in the background before it expires while it is in use, so callers don't wait for a
+   * new token.
+   *
    * @param testUser
    * @param scopes
    * @return a domain-wide delegated user credential
    */
   public static GoogleCredentials getDelegatedUserCredential(
       TestUserSpecification testUser, List<String> scopes) throws IOException {
-    GoogleCredentials serviceAccountCredential =
-        getServiceAccountCredential(testUser.delegatorServiceAccount, cloudPlatformScope);
-    return serviceAccountCredential.createScoped(scopes).createDelegated(testUser.userEmail);
+    List<Object> key =
+        List.of(
+            "delegated",
+            testUser.delegatorServiceAccount.jsonKeyFile.getAbsolutePath(),
+            testUser.userEmail,
+            List.copyOf(scopes));
+    return getCachedCredential(
+        key,
+        () -> {
+          GoogleCredentials serviceAccountCredential =
+              getServiceAccountCredential(testUser.delegatorServiceAccount, cloudPlatformScope);
+          return serviceAccountCredential.createScoped(scopes).createDelegated(testUser.userEmail);
+        });
   }
 
   /**
@@ -52,6 +89,9 @@ public final class AuthenticationUtils {
    * <p>- To call Buffer Service with its single designated client service account (with user login
    * scopes)
    *
+   * <p>The credential is built once for each key file and set of scopes, so the key file is only
+   * read the first time.
+   *
    * @param serviceAccount
    * @param scopes
    * @return a service account credential
@@ -59,7 +99,96 @@ public final class AuthenticationUtils {
   public static GoogleCredentials getServiceAccountCredential(
       ServiceAccountSpecification serviceAccount, List<String> scopes) throws IOException {
     File jsonKey = serviceAccount.jsonKeyFile;
-    return ServiceAccountCredentials.fromStream(new FileInputStream(jsonKey)).createScoped(scopes);
+    List<Object> key = List.of("serviceAccount", jsonKey.getAbsolutePath(), List.copyOf(scopes));
+    return getCachedCredential(
+        key,
+        () -> {
+          try (InputStream jsonKeyStream = new FileInputStream(jsonKey)) {
+            return ServiceAccountCredentials.fromStream(jsonKeyStream).createScoped(scopes);
+          }
+        });
+  }
+
+  /** A cached credential and the last time it was asked for. */
+  private static final class CachedCredential {
+    final GoogleCredentials credential;
+    volatile long lastUsedMillis;
+
+    CachedCredential(GoogleCredentials credential) {
+      this.credential = credential;
+      this.lastUsedMillis = System.currentTimeMillis();
+    }
+  }
+
+  /** Builds a new credential. */
+  @FunctionalInterface
+  private interface CredentialBuilder {
+    GoogleCredentials build() throws IOException;
+  }
+
+  /**
+   * Get the cached credential for the given key, building it on first use. The credentials are
+   * thread-safe, so the same one is returned to all callers.
+   */
+  private static GoogleCredentials getCachedCredential(List<Object> key, CredentialBuilder builder)
+      throws IOException {
+    CachedCredential cachedCredential = credentialCache.get(key);
+    if (cachedCredential == null) {
+      synchronized (credentialCache) {
+        cachedCredential = credentialCache.get(key);
+        if (cachedCredential == null) {
+          cachedCredential = new CachedCredential(builder.build());
+          credentialCache.put(key, cachedCredential);
+          startCredentialRefreshThread();
+        }
+      }
+    }
+    cachedCredential.lastUsedMillis = System.currentTimeMillis();
+    return cachedCredential.credential;
+  }
+
+  private static void startCredentialRefreshThread() {
+    if (credentialRefreshThread != null) {
+      return;
+    }
+    credentialRefreshThread =
+        Executors.newSingleThreadScheduledExecutor(
+            KubernetesClientUtils.newUnboundDaemonThreadFactory("credential-refresh"));
+    credentialRefreshThread.scheduleWithFixedDelay(
+        AuthenticationUtils::refreshExpiringCredentials,
+        secondsBetweenRefreshChecks,
+        secondsBetweenRefreshChecks,
+        TimeUnit.SECONDS);
+  }
+
+  /**
+   * Refresh the access tokens of the cached credentials that expire soon. Credentials that have
+   * never been used don't have a token yet, and credentials that have been idle for longer than
+   * {@link #secondsIdleBeforeRefreshStops} are refreshed on their next use instead, so both are
+   * left alone.
+   */
+  private static void refreshExpiringCredentials() {
+    long nowMillis = System.currentTimeMillis();
+    long refreshBeforeMillis = nowMillis + TimeUnit.SECONDS.toMillis(secondsBeforeExpiryToRefresh);
+    long usedSinceMillis = nowMillis - TimeUnit.SECONDS.toMillis(secondsIdleBeforeRefreshStops);
+    for (CachedCredential cachedCredential : credentialCache.values()) {
+      if (cachedCredential.lastUsedMillis < usedSinceMillis) {
+        continue;
+      }
+      GoogleCredentials credential = cachedCredential.credential;
+      AccessToken accessToken = credential.getAccessToken();
+      if (accessToken == null
+          || accessToken.getExpirationTime() == null
+          || accessToken.getExpirationTime().getTime() > refreshBeforeMillis) {
+        continue;
+      }
+      try {
+        credential.refresh();
+      } catch (IOException | RuntimeException refreshEx) {
+        // the token is refreshed on the next use instead
+        logger.warn("Error refreshing access token in the background", refreshEx);
+      }
+    }
   }
 
   /**
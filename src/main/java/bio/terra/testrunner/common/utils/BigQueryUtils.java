@@ -75,6 +75,21 @@ public final class BigQueryUtils {
     return bigQuery;
   }
 
+  /**
+   * Get the shared Google Big Query client object for a given service account and project.
+   *
+   * @see GoogleClientRegistry
+   */
+  public static BigQuery getSharedClientForServiceAccount(
+      ServiceAccountSpecification serviceAccount, String googleProjectId) throws Exception {
+    return GoogleClientRegistry.getClient(
+        BigQuery.class,
+        serviceAccount,
+        bigQueryScope,
+        googleProjectId,
+        () -> getClientForServiceAccount(serviceAccount, googleProjectId));
+  }
+
   /**
    * Execute a query with the given BigQuery client object.
    *
@@ -0,0 +1,114 @@
+package bio.terra.testrunner.common.utils;
+
+import bio.terra.testrunner.runner.config.ServiceAccountSpecification;
+import com.google.api.gax.core.BackgroundResource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the Google API clients built for each service account and set of scopes, so that all the
+ * measurement collectors and result uploaders in a process share the same credentials, gRPC
+ * channels and HTTP transports, instead of reading the key file and opening new connections for
+ * every measurement. The clients are closed by {@link #closeAll()}, or when the JVM shuts down.
+ *
+ * <p>The {@code getSharedClientForServiceAccount} methods of the utility classes get their clients
+ * from here, while their {@code getClientForServiceAccount} methods still build a new client on
+ * each call. Callers must not close the shared clients. A client that was closed anyway is rebuilt
+ * on the next request.
+ */
+public final class GoogleClientRegistry {
+  private static final Logger logger = LoggerFactory.getLogger(GoogleClientRegistry.class);
+
+  private static final long secondsToWaitForClientShutdown = 10;
+
+  // key = [client class, key file path, scopes, any other client settings]
+  private static final Map<List<Object>, Object> clients = new HashMap<>();
+  private static boolean shutdownHookAdded = false;
+
+  private GoogleClientRegistry() {}
+
+  /** Builds a new client with the given credentials. */
+  @FunctionalInterface
+  public interface ClientBuilder<T> {
+    T build() throws Exception;
+  }
+
+  /**
+   * Get the cached client for the given service account and scopes, building it on first use.
+   *
+   * @param clientClass the type of client
+   * @param serviceAccount the service account the client authenticates as
+   * @param scopes the scopes of the client's credentials
+   * @param settings any other settings that the client is built with (e.g. the project id), null if
+   *     none
+   * @param builder builds a new client, called at most once per key unless the client is closed
+   * @return the shared client
+   */
+  public static synchronized <T> T getClient(
+      Class<T> clientClass,
+      ServiceAccountSpecification serviceAccount,
+      List<String> scopes,
+      String settings,
+      ClientBuilder<T> builder)
+      throws Exception {
+    List<Object> key =
+        List.of(
+            clientClass.getName(),
+            serviceAccount.jsonKeyFile.getAbsolutePath(),
+            List.copyOf(scopes),
+            settings == null ? "" : settings);
+    Object client = clients.get(key);
+    if (client instanceof BackgroundResource && ((BackgroundResource) client).isShutdown()) {
+      logger.debug("Rebuilding closed {} for {}", clientClass.getSimpleName(), serviceAccount.name);
+      client = null;
+    }
+    if (client == null) {
+      logger.debug("Building {} for {}", clientClass.getSimpleName(), serviceAccount.name);
+      client = builder.build();
+      clients.put(key, client);
+      addShutdownHook();
+    }
+    return clientClass.cast(client);
+  }
+
+  /** Close all the cached clients that hold connections, and empty the cache. */
+  public static void closeAll() {
+    List<Object> clientsToClose;
+    synchronized (GoogleClientRegistry.class) {
+      clientsToClose = new ArrayList<>(clients.values());
+      clients.clear();
+    }
+    for (Object client : clientsToClose) {
+      try {
+        if (client instanceof BackgroundResource) {
+          BackgroundResource backgroundResource = (BackgroundResource) client;
+          backgroundResource.shutdown();
+          if (!backgroundResource.awaitTermination(
+              secondsToWaitForClientShutdown, TimeUnit.SECONDS)) {
+            backgroundResource.shutdownNow();
+          }
+        } else if (client instanceof AutoCloseable) {
+          ((AutoCloseable) client).close();
+        }
+      } catch (InterruptedException intEx) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception closeEx) {
+        logger.warn("Error closing Google client {}", client.getClass().getSimpleName(), closeEx);
+      }
+    }
+  }
+
+  private static void addShutdownHook() {
+    if (!shutdownHookAdded) {
+      Runtime.getRuntime()
+          .addShutdownHook(new Thread(GoogleClientRegistry::closeAll, "google-client-shutdown"));
+      shutdownHookAdded = true;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package bio.terra.testrunner.common.utils;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+public final class HistogramUtils {
+  // 3 significant digits keeps the value error under 0.1%, at a fixed memory cost per histogram
+  public static final int numberOfSignificantValueDigits = 3;
+
+  public static final double nanosecondsPerMillisecond = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private HistogramUtils() {}
+
+  /**
+   * Build an auto-resizing histogram that supports lock-free recording from multiple threads. It is
+   * intended for latencies recorded in nanoseconds, but can hold any non-negative long values.
+   *
+   * @return a new, empty histogram
+   */
+  public static Histogram newConcurrentHistogram() {
+    return new ConcurrentHistogram(numberOfSignificantValueDigits);
+  }
+
+  /**
+   * Encode a histogram into a compact string, suitable for writing to the JSON output files. The
+   * histogram is compressed and then Base64-encoded.
+   *
+   * @param histogram the histogram to encode
+   * @return the encoded histogram
+   */
+  public static String encode(AbstractHistogram histogram) {
+    ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+    int numBytes = histogram.encodeIntoCompressedByteBuffer(buffer);
+    return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), numBytes));
+  }
+
+  /**
+   * Decode a histogram from the string produced by {@link #encode(AbstractHistogram)}.
+   *
+   * @param encodedHistogram the encoded histogram
+   * @return the decoded histogram
+   */
+  public static Histogram decode(String encodedHistogram) {
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encodedHistogram));
+      return Histogram.decodeFromCompressedByteBuffer(buffer, 0);
+    } catch (DataFormatException | IllegalArgumentException decodeEx) {
+      throw new IllegalArgumentException("Error decoding histogram", decodeEx);
+    }
+  }
+
+  /**
+   * Merge encoded histograms, for example the same test script histogram from several test runs.
+   * Null entries are skipped.
+   *
+   * @param encodedHistograms the encoded histograms to merge
+   * @return a new histogram that contains the values from all the given histograms
+   */
+  public static Histogram merge(Collection<String> encodedHistograms) {
+    Histogram merged = new Histogram(numberOfSignificantValueDigits);
+    for (String encodedHistogram : encodedHistograms) {
+      if (encodedHistogram != null) {
+        merged.add(decode(encodedHistogram));
+      }
+    }
+    return merged;
+  }
+}
@@ -0,0 +1,108 @@
+package bio.terra.testrunner.common.utils;
+
+import bio.terra.testrunner.runner.DisruptionEventRecorder;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+
+/**
+ * The Kubernetes client objects and target namespace for a single test run. Each test run builds
+ * its own context, so that test configurations running in parallel don't overwrite each other's
+ * clients. {@link KubernetesClientUtils} binds the context to the thread that built it, and to any
+ * threads that thread starts.
+ */
+public final class KubernetesClientContext {
+  private final String namespace;
+  private final String componentLabel;
+  private final String apiComponentLabel;
+  private final ApiClient apiClient;
+  private final ApiClient watchApiClient;
+  private final CoreV1Api coreApi;
+  private final AppsV1Api appsApi;
+
+  // started on first use, see getResourceCache
+  private KubernetesResourceCache resourceCache;
+
+  // set while a disruptive script runs, to record the changes it makes to the namespace
+  private volatile DisruptionEventRecorder disruptionEventRecorder;
+
+  /**
+   * @param apiClient client for regular requests
+   * @param watchApiClient client for long-running watches, i.e. without a read timeout
+   */
+  public KubernetesClientContext(
+      String namespace,
+      String componentLabel,
+      String apiComponentLabel,
+      ApiClient apiClient,
+      ApiClient watchApiClient) {
+    this.namespace = namespace;
+    this.componentLabel = componentLabel;
+    this.apiComponentLabel = apiComponentLabel;
+    this.apiClient = apiClient;
+    this.watchApiClient = watchApiClient;
+    this.coreApi = new CoreV1Api(apiClient);
+    this.appsApi = new AppsV1Api(apiClient);
+  }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  public String getComponentLabel() {
+    return componentLabel;
+  }
+
+  public String getApiComponentLabel() {
+    return apiComponentLabel;
+  }
+
+  public ApiClient getApiClient() {
+    return apiClient;
+  }
+
+  public ApiClient getWatchApiClient() {
+    return watchApiClient;
+  }
+
+  public CoreV1Api getCoreApi() {
+    return coreApi;
+  }
+
+  public AppsV1Api getAppsApi() {
+    return appsApi;
+  }
+
+  public DisruptionEventRecorder getDisruptionEventRecorder() {
+    return disruptionEventRecorder;
+  }
+
+  public void setDisruptionEventRecorder(DisruptionEventRecorder disruptionEventRecorder) {
+    this.disruptionEventRecorder = disruptionEventRecorder;
+  }
+
+  /**
+   * Get the cache of the pods and deployments in the namespace, starting it on first use.
+   *
+   * @return the started cache
+   * @throws ApiException if the cache did not sync in time
+   */
+  public synchronized KubernetesResourceCache getResourceCache()
+      throws ApiException, InterruptedException {
+    if (resourceCache == null) {
+      KubernetesResourceCache newResourceCache = new KubernetesResourceCache(this);
+      newResourceCache.start();
+      resourceCache = newResourceCache;
+    }
+    return resourceCache;
+  }
+
+  /** Stop the cache, if it was started. It is started again on the next use. */
+  public synchronized void close() {
+    if (resourceCache != null) {
+      resourceCache.stop();
+      resourceCache = null;
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package bio.terra.testrunner.common.utils;
 
+import bio.terra.testrunner.runner.DisruptionEvent;
+import bio.terra.testrunner.runner.DisruptionEventRecorder;
 import bio.terra.testrunner.runner.config.ServerSpecification;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
 import com.google.api.client.http.HttpRequestInitializer;
@@ -30,6 +32,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
@@ -39,7 +42,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
+import java.util.concurrent.ThreadFactory;
 import java.util.stream.Collectors;
 import okhttp3.Call;
 import okhttp3.Response;
@@ -51,38 +55,160 @@ public final class KubernetesClientUtils {
   private static final Random random = new Random();
 
   private static int maximumSecondsToWaitForReplicaSetSizeChange = 500;
-  private static int secondsIntervalToPollReplicaSetSizeChange = 5;
 
-  private static String componentLabel;
+  // maximum number of objects per page, when listing directly from the API server
+  private static final int listPageSize = 500;
 
-  private static String apiComponentLabel;
+  // the client context of the test run on the current thread. threads started by a test run
+  // inherit its context, so the user journey and disruption threads see the same clients
+  private static final InheritableThreadLocal<KubernetesClientContext> boundContext =
+      new InheritableThreadLocal<>();
 
-  private static String namespace;
-
-  private static CoreV1Api kubernetesClientCoreObject;
-  private static AppsV1Api kubernetesClientAppsObject;
+  // the most recently built context, for threads that were not started by a test run (e.g. the
+  // common fork-join pool). only used while test configurations don't run in parallel, because
+  // then it could belong to another test run, i.e. another namespace
+  private static volatile KubernetesClientContext sharedContext;
+  private static volatile boolean sharedContextEnabled = true;
 
   private KubernetesClientUtils() {}
 
-  public static CoreV1Api getKubernetesClientCoreObject() {
-    if (kubernetesClientCoreObject == null) {
-      throw new UnsupportedOperationException(
-          "Kubernetes client core object is not setup. Check the server configuration skipKubernetes property.");
+  /**
+   * Get the client context for the current thread: the one bound to this thread or inherited from
+   * the thread that started it. Otherwise, unless test configurations are running in parallel, the
+   * most recently built one.
+   *
+   * @return the client context, null if none is available to this thread
+   */
+  public static KubernetesClientContext getContext() {
+    KubernetesClientContext context = boundContext.get();
+    if (context != null) {
+      return context;
     }
-    return kubernetesClientCoreObject;
+    return sharedContextEnabled ? sharedContext : null;
   }
 
-  public static AppsV1Api getKubernetesClientAppsObject() {
-    if (kubernetesClientAppsObject == null) {
+  /**
+   * Enable or disable the shared context and the global default client. The Test Runner disables
+   * them while it runs test configurations in parallel, so that a thread without a bound context
+   * fails instead of using the clients of another test run. They are enabled by default.
+   *
+   * @param enabled true to let threads without a bound context use the most recently built one
+   */
+  public static void setSharedContextEnabled(boolean enabled) {
+    sharedContextEnabled = enabled;
+    if (!enabled) {
+      sharedContext = null;
+    }
+  }
+
+  /**
+   * Build a factory for long-lived daemon threads that are shared across test runs, e.g. cache or
+   * token refresh threads. The threads don't inherit the client context of the thread that happens
+   * to create them, so they don't keep the first test run's clients alive after it ends.
+   *
+   * @param threadName the name of the threads
+   * @return the thread factory
+   */
+  public static ThreadFactory newUnboundDaemonThreadFactory(String threadName) {
+    return runnable -> {
+      Thread thread = new Thread(null, runnable, threadName, 0, false);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * Bind a client context to the current thread, and to any threads it starts from now on. The
+   * build methods already do this, so this is only needed to share a context with a thread that
+   * already exists.
+   *
+   * @param context the client context to use on this thread
+   */
+  public static void bindContext(KubernetesClientContext context) {
+    boundContext.set(context);
+  }
+
+  /** Unbind the client context from the current thread. Call this at the end of a test run. */
+  public static void unbindContext() {
+    boundContext.remove();
+  }
+
+  /**
+   * Stop the pod and deployment cache of the client context bound to the current thread, if it was
+   * started. Call this at the end of a test run, before unbinding the context.
+   */
+  public static void closeContext() {
+    KubernetesClientContext context = boundContext.get();
+    if (context != null) {
+      context.close();
+    }
+  }
+
+  /**
+   * Get the cache of the pods and deployments in the namespace, starting it on first use. All the
+   * read methods below are served from the cache instead of listing from the API server.
+   *
+   * @return the started cache
+   */
+  public static KubernetesResourceCache getResourceCache() throws ApiException {
+    try {
+      return requireContext("core").getResourceCache();
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      throw new ApiException(intEx);
+    }
+  }
+
+  private static KubernetesClientContext requireContext(String clientDescription) {
+    KubernetesClientContext context = getContext();
+    if (context == null) {
       throw new UnsupportedOperationException(
-          "Kubernetes client apps object is not setup. Check the server configuration skipKubernetes property.");
+          "Kubernetes client "
+              + clientDescription
+              + " object is not setup for this thread. Check the server configuration"
+              + " skipKubernetes property. When test configurations run in parallel, bind the"
+              + " test run's context to threads that it did not start.");
     }
-    return kubernetesClientAppsObject;
+    return context;
+  }
+
+  /**
+   * Build a client context from the given clients, and bind it to the current thread. Unless test
+   * configurations are running in parallel, also share it with the other threads, and set the
+   * global default client for code that builds its own API objects, e.g. {@code new CoreV1Api()}.
+   */
+  private static void buildContext(
+      ServerSpecification server, ApiClient client, ApiClient watchClient) {
+    KubernetesClientContext context =
+        new KubernetesClientContext(
+            server.cluster.namespace,
+            server.cluster.componentLabel,
+            server.cluster.apiComponentLabel,
+            client,
+            watchClient);
+    bindContext(context);
+    if (sharedContextEnabled) {
+      sharedContext = context;
+      Configuration.setDefaultApiClient(client);
+    }
+  }
+
+  private static String getNamespace() {
+    return requireContext("core").getNamespace();
+  }
+
+  public static CoreV1Api getKubernetesClientCoreObject() {
+    return requireContext("core").getCoreApi();
+  }
+
+  public static AppsV1Api getKubernetesClientAppsObject() {
+    return requireContext("apps").getAppsApi();
   }
 
   /**
-   * Build the singleton Kubernetes client objects. This method should be called once at the
-   * beginning of a test run, and then all subsequent fetches should use the getter methods instead.
+   * Build the Kubernetes client objects for a test run, and bind them to the current thread. This
+   * method should be called once at the beginning of a test run, and then all subsequent fetches
+   * should use the getter methods instead.
    *
    * @param server the server specification that points to the relevant Kubernetes cluster
    * @deprecated use {@link #buildKubernetesClientObjectWithClientKey(ServerSpecification)} instead.
@@ -107,7 +233,6 @@ public final class KubernetesClientUtils {
     String kubeConfigPath = System.getenv("HOME") + "/.kube/config";
     logger.debug("Kube config path: {}", kubeConfigPath);
 
-    namespace = server.cluster.namespace;
     // load the kubeconfig object from the file
     InputStreamReader filereader =
         new InputStreamReader(new FileInputStream(kubeConfigPath), StandardCharsets.UTF_8);
@@ -168,17 +293,16 @@ public final class KubernetesClientUtils {
     // build the client object from the config
     logger.debug("Building the client objects from the config");
     ApiClient client = ClientBuilder.kubeconfig(kubeConfig).build();
+    // watches stay open with no data for a long time, so they need a client without a read timeout
+    ApiClient watchClient =
+        ClientBuilder.kubeconfig(kubeConfig).setReadTimeout(Duration.ZERO).build();
 
-    // set the global default client to the one created above because the CoreV1Api and AppsV1Api
-    // constructors get the client object from the global configuration
-    Configuration.setDefaultApiClient(client);
-
-    kubernetesClientCoreObject = new CoreV1Api();
-    kubernetesClientAppsObject = new AppsV1Api();
+    buildContext(server, client, watchClient);
   }
 
   /**
-   * An alternative method to build the singleton Kubernetes client objects without .kube/config.
+   * An alternative method to build the Kubernetes client objects for a test run without
+   * .kube/config. The client objects are bound to the current thread.
    *
    * <p>Requires Test Runner Service Account that meets the following standards - Kubernetes Engine
    * Viewer
@@ -196,9 +320,7 @@ public final class KubernetesClientUtils {
    */
   public static void buildKubernetesClientObjectWithClientKey(ServerSpecification server)
       throws Exception {
-    namespace = server.cluster.namespace;
-    componentLabel = server.cluster.componentLabel;
-    apiComponentLabel = server.cluster.apiComponentLabel;
+    String namespace = server.cluster.namespace;
     // get a refreshed SA access token and its expiration time
     logger.debug("Getting a refreshed service account access token and its expiration time");
     GoogleCredentials testRunnerServiceAccountCredentials =
@@ -281,13 +403,11 @@ public final class KubernetesClientUtils {
     // build the client object from the config
     logger.debug("Building the client objects from the config");
     ApiClient client = ClientBuilder.kubeconfig(kubeConfig).build();
+    // watches stay open with no data for a long time, so they need a client without a read timeout
+    ApiClient watchClient =
+        ClientBuilder.kubeconfig(kubeConfig).setReadTimeout(Duration.ZERO).build();
 
-    // set the global default client to the one created above because the CoreV1Api and AppsV1Api
-    // constructors get the client object from the global configuration
-    Configuration.setDefaultApiClient(client);
-
-    kubernetesClientCoreObject = new CoreV1Api();
-    kubernetesClientAppsObject = new AppsV1Api();
+    buildContext(server, client, watchClient);
   }
 
   /**
@@ -313,7 +433,7 @@ public final class KubernetesClientUtils {
     // Get the Terra Component Version ConfigMap for the namespace.
     V1ConfigMap config =
         getKubernetesClientCoreObject()
-            .readNamespacedConfigMap("terra-component-version", namespace, null);
+            .readNamespacedConfigMap("terra-component-version", getNamespace(), null);
     Map<String, String> configMap = config.getData();
     return configMap.entrySet().stream()
         .collect(
@@ -372,48 +492,156 @@ public final class KubernetesClientUtils {
   }
 
   /**
-   * List all the pods in namespace defined in buildKubernetesClientObject by the server
-   * specification, or in the whole cluster if the namespace is not specified (i.e. null or empty
-   * string).
+   * List the pods with the component label in namespace defined in buildKubernetesClientObject by
+   * the server specification, or in the whole cluster if the namespace is not specified (i.e. null
+   * or empty string). The pods come from the cache, see {@link #getResourceCache()}, which only
+   * holds the pods with the component label. Use {@link #listPods(String, String)} with null
+   * selectors to list every pod from the API server.
    *
-   * @return list of Kubernetes pods
+   * @return list of Kubernetes pods, sorted by name
    */
   public static List<V1Pod> listPods() throws ApiException {
-    V1PodList list;
-    if (namespace == null || namespace.isEmpty()) {
-      list =
-          getKubernetesClientCoreObject()
-              .listPodForAllNamespaces(null, null, null, null, null, null, null, null, null, null);
-    } else {
-      list =
-          getKubernetesClientCoreObject()
-              .listNamespacedPod(
-                  namespace, null, null, null, null, null, null, null, null, null, null);
-    }
-    return list.getItems();
+    return getResourceCache().listPods();
   }
 
   /**
-   * List all the deployments in namespace defined in buildKubernetesClientObject by the server
-   * specification, or in the whole cluster if the namespace is not specified (i.e. null or empty
-   * string).
+   * List the deployments with the component label in namespace defined in
+   * buildKubernetesClientObject by the server specification, or in the whole cluster if the
+   * namespace is not specified (i.e. null or empty string). The deployments come from the cache,
+   * see {@link #getResourceCache()}, which only holds the deployments with the component label. Use
+   * {@link #listDeployments(String, String)} with null selectors to list every deployment from the
+   * API server.
    *
-   * @return list of Kubernetes deployments
+   * @return list of Kubernetes deployments, sorted by name
    */
   public static List<V1Deployment> listDeployments() throws ApiException {
-    V1DeploymentList list;
-    if (namespace == null || namespace.isEmpty()) {
-      list =
-          getKubernetesClientAppsObject()
-              .listDeploymentForAllNamespaces(
-                  null, null, null, null, null, null, null, null, null, null);
-    } else {
-      list =
-          getKubernetesClientAppsObject()
-              .listNamespacedDeployment(
-                  namespace, null, null, null, null, null, null, null, null, null, null);
-    }
-    return list.getItems();
+    return getResourceCache().listDeployments();
+  }
+
+  /**
+   * List the pods that match the given selectors directly from the API server, bypassing the cache.
+   * The selectors are evaluated on the server, so only the matching pods are transferred. The pods
+   * are fetched in pages, so a cluster-wide list does not come back as one huge response.
+   *
+   * @param labelSelector (optional) e.g. component=api, null for all pods
+   * @param fieldSelector (optional) e.g. status.phase=Running, null for all pods
+   * @return list of Kubernetes pods
+   */
+  public static List<V1Pod> listPods(String labelSelector, String fieldSelector)
+      throws ApiException {
+    return listPodPages(requireContext("core"), labelSelector, fieldSelector).getItems();
+  }
+
+  /**
+   * List the deployments that match the given selectors directly from the API server, bypassing the
+   * cache. The selectors are evaluated on the server, and the deployments are fetched in pages.
+   *
+   * @param labelSelector (optional) e.g. component=api, null for all deployments
+   * @param fieldSelector (optional) e.g. metadata.name=api, null for all deployments
+   * @return list of Kubernetes deployments
+   */
+  public static List<V1Deployment> listDeployments(String labelSelector, String fieldSelector)
+      throws ApiException {
+    AppsV1Api appsApi = requireContext("apps").getAppsApi();
+    String namespace = getNamespace();
+    List<V1Deployment> deployments = new ArrayList<>();
+    String continueToken = null;
+    do {
+      V1DeploymentList page;
+      if (namespace == null || namespace.isEmpty()) {
+        page =
+            appsApi.listDeploymentForAllNamespaces(
+                null,
+                continueToken,
+                fieldSelector,
+                labelSelector,
+                listPageSize,
+                null,
+                null,
+                null,
+                null,
+                null);
+      } else {
+        page =
+            appsApi.listNamespacedDeployment(
+                namespace,
+                null,
+                null,
+                continueToken,
+                fieldSelector,
+                labelSelector,
+                listPageSize,
+                null,
+                null,
+                null,
+                null);
+      }
+      deployments.addAll(page.getItems());
+      continueToken = page.getMetadata().getContinue();
+    } while (continueToken != null && !continueToken.isEmpty());
+    return deployments;
+  }
+
+  /**
+   * Build a label selector that matches the pods or deployments with the given label value.
+   *
+   * @param label label key, e.g. the component label
+   * @param value label value, e.g. the API component label
+   * @return the label selector, e.g. component=api
+   */
+  public static String labelSelector(String label, String value) {
+    return label + "=" + value;
+  }
+
+  /**
+   * List the pods that match the given selectors from the API server, one page at a time. All the
+   * pages come from the same snapshot, so the resource version of the returned list can be used to
+   * start a watch from.
+   *
+   * @return all the matching pods, with the resource version of the list
+   */
+  static V1PodList listPodPages(
+      KubernetesClientContext context, String labelSelector, String fieldSelector)
+      throws ApiException {
+    CoreV1Api coreApi = context.getCoreApi();
+    String namespace = context.getNamespace();
+    V1PodList pods = new V1PodList().items(new ArrayList<>());
+    String continueToken = null;
+    do {
+      V1PodList page;
+      if (namespace == null || namespace.isEmpty()) {
+        page =
+            coreApi.listPodForAllNamespaces(
+                null,
+                continueToken,
+                fieldSelector,
+                labelSelector,
+                listPageSize,
+                null,
+                null,
+                null,
+                null,
+                null);
+      } else {
+        page =
+            coreApi.listNamespacedPod(
+                namespace,
+                null,
+                null,
+                continueToken,
+                fieldSelector,
+                labelSelector,
+                listPageSize,
+                null,
+                null,
+                null,
+                null);
+      }
+      pods.getItems().addAll(page.getItems());
+      pods.setMetadata(page.getMetadata());
+      continueToken = page.getMetadata().getContinue();
+    } while (continueToken != null && !continueToken.isEmpty());
+    return pods;
   }
 
   /**
@@ -426,7 +654,7 @@ public final class KubernetesClientUtils {
   public static V1Deployment getApiDeployment() throws ApiException {
     // loop through the deployments in the namespace
     // find the one that matches the api component label
-    return getApiDeployment(componentLabel, apiComponentLabel);
+    return getApiDeployment(getComponentLabel(), getApiComponentLabel());
   }
 
   /**
@@ -440,17 +668,8 @@ public final class KubernetesClientUtils {
    */
   public static V1Deployment getApiDeployment(String componentLabel, String apiComponentLabel)
       throws ApiException {
-    // loop through the deployments in the namespace
-    // find the one that matches the api component label
-    return listDeployments().stream()
-        .filter(
-            deployment ->
-                deployment.getMetadata().getLabels().containsKey(componentLabel)
-                    && deployment
-                        .getMetadata()
-                        .getLabels()
-                        .get(componentLabel)
-                        .equals(apiComponentLabel))
+    // look up the deployments in the namespace that match the api component label
+    return getResourceCache().listDeploymentsWithLabel(componentLabel, apiComponentLabel).stream()
         .findFirst()
         .orElse(null);
   }
@@ -464,17 +683,32 @@ public final class KubernetesClientUtils {
    */
   public static V1Deployment changeReplicaSetSize(V1Deployment deployment, int numberOfReplicas)
       throws ApiException {
+    // read the latest version of the deployment, instead of modifying the (possibly cached and
+    // slightly out of date) one passed in
+    deployment =
+        getKubernetesClientAppsObject()
+            .readNamespacedDeployment(
+                deployment.getMetadata().getName(), deployment.getMetadata().getNamespace(), null);
+    DisruptionEventRecorder eventRecorder = getDisruptionEventRecorder();
+    Set<String> podNamesBefore = eventRecorder == null ? null : cachedPodNames();
     V1DeploymentSpec existingSpec = deployment.getSpec();
+    Integer previousReplicas = existingSpec.getReplicas();
     deployment.setSpec(existingSpec.replicas(numberOfReplicas));
-    return getKubernetesClientAppsObject()
-        .replaceNamespacedDeployment(
-            deployment.getMetadata().getName(),
-            deployment.getMetadata().getNamespace(),
-            deployment,
-            null,
-            null,
-            null,
-            "Warn");
+    V1Deployment replacedDeployment =
+        getKubernetesClientAppsObject()
+            .replaceNamespacedDeployment(
+                deployment.getMetadata().getName(),
+                deployment.getMetadata().getNamespace(),
+                deployment,
+                null,
+                null,
+                null,
+                "Warn");
+    if (eventRecorder != null) {
+      eventRecorder.recordReplicaCountChanged(
+          replacedDeployment, previousReplicas, numberOfReplicas, podNamesBefore);
+    }
+    return replacedDeployment;
   }
 
   /** Select any pod from api pods and delete pod. */
@@ -486,16 +720,13 @@ public final class KubernetesClientUtils {
     long podCount = getApiPodCount(apiDeployment);
     logger.debug("Pod Count: {}; Message: Before deleting pods", podCount);
     printApiPods(apiDeployment);
+    String componentLabel = getComponentLabel();
     String deploymentComponentLabel = apiDeployment.getMetadata().getLabels().get(componentLabel);
 
     // select a random pod from list of apis
     String randomPodName;
     randomPodName =
-        listPods().stream()
-            .filter(
-                pod ->
-                    deploymentComponentLabel.equals(
-                        pod.getMetadata().getLabels().get(componentLabel)))
+        getResourceCache().listPodsWithLabel(componentLabel, deploymentComponentLabel).stream()
             .skip(random.nextInt((int) podCount))
             .findFirst()
             .get()
@@ -512,57 +743,123 @@ public final class KubernetesClientUtils {
     // https://github.com/kubernetes-client/java/issues/252
     // the following few lines were suggested as a workaround
     // https://github.com/kubernetes-client/java/issues/86
-    logger.debug("Building request to delete pod {}", podNameToDelete);
-    Call call =
-        getKubernetesClientCoreObject()
-            .deleteNamespacedPodCall(
-                podNameToDelete, namespace, null, null, null, null, null, null, null);
-    logger.debug("Call delete pod API");
-    Response response = call.execute();
-    logger.debug("Response code: {}", response.code());
-    Configuration.getDefaultApiClient()
-        .handleResponse(response, (new TypeToken<V1Pod>() {}).getType());
+    // remember the pods before the deletion, so that the replacement pod can be recognized
+    DisruptionEventRecorder eventRecorder = getDisruptionEventRecorder();
+    Set<String> podNamesBefore = eventRecorder == null ? null : cachedPodNames();
+    V1Pod podToDelete =
+        eventRecorder == null
+            ? null
+            : getResourceCache().listPods().stream()
+                .filter(pod -> podNameToDelete.equals(pod.getMetadata().getName()))
+                .findFirst()
+                .orElse(null);
+
+    // start timing the recovery before the deletion, so a quick replacement pod is not missed
+    if (eventRecorder != null) {
+      eventRecorder.trackPodDeletion(podNameToDelete, podToDelete, podNamesBefore);
+    }
+    try {
+      logger.debug("Building request to delete pod {}", podNameToDelete);
+      Call call =
+          getKubernetesClientCoreObject()
+              .deleteNamespacedPodCall(
+                  podNameToDelete, getNamespace(), null, null, null, null, null, null, null);
+      logger.debug("Call delete pod API");
+      Response response = call.execute();
+      logger.debug("Response code: {}", response.code());
+      requireContext("core")
+          .getApiClient()
+          .handleResponse(response, (new TypeToken<V1Pod>() {}).getType());
+    } catch (ApiException | IOException | RuntimeException ex) {
+      if (eventRecorder != null) {
+        eventRecorder.cancelPodDeletion(podNameToDelete);
+      }
+      throw ex;
+    }
     logger.debug("Delete {} completed", podNameToDelete);
+    if (eventRecorder != null) {
+      eventRecorder.recordPodDeleted(podNameToDelete);
+    }
+  }
+
+  private static Set<String> cachedPodNames() throws ApiException {
+    return getResourceCache().listPods().stream()
+        .map(pod -> pod.getMetadata().getName())
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Get the disruption event recorder of the current test run, if a disruptive script is running.
+   * Changes made outside of a disruption (e.g. setting the initial number of pods) are not
+   * recorded.
+   *
+   * @return the recorder, null if there is none
+   */
+  private static DisruptionEventRecorder getDisruptionEventRecorder() {
+    KubernetesClientContext context = getContext();
+    return context == null ? null : context.getDisruptionEventRecorder();
+  }
+
+  /**
+   * A pod is ready when ALL its containers are ready, and it is not terminating. Checking only some
+   * of the containers might convey a false sense of readiness, because some containers can take
+   * longer to restart than others.
+   *
+   * @param pod the pod to check
+   * @return true if the pod is ready
+   */
+  public static boolean isPodReady(V1Pod pod) {
+    return pod.getMetadata().getDeletionTimestamp() == null
+        && pod.getStatus() != null
+        && pod.getStatus().getContainerStatuses() != null
+        && pod.getStatus().getContainerStatuses().stream()
+            .allMatch(status -> Boolean.TRUE.equals(status.getReady()));
   }
 
   /**
    * Wait until the size of the replica set matches the specified number of running pods. Times out
-   * after {@link KubernetesClientUtils#maximumSecondsToWaitForReplicaSetSizeChange} seconds. Polls
-   * in intervals of {@link KubernetesClientUtils#secondsIntervalToPollReplicaSetSizeChange}
-   * seconds.
+   * after {@link KubernetesClientUtils#maximumSecondsToWaitForReplicaSetSizeChange} seconds.
+   * Watches the pods with the deployment's component label, so the change is seen as soon as it
+   * happens, instead of repeatedly listing every pod in the namespace.
    *
-   * @param deployment the deployment object to poll
+   * @param deployment the deployment object to watch
    * @param numberOfReplicas the eventual expected size of the replica set
    */
   public static void waitForReplicaSetSizeChange(V1Deployment deployment, int numberOfReplicas)
       throws Exception {
-    // set values so that while conditions always true on first try
-    // forces the first sleep statement to be hit giving the pods a chance to start any adjustments
-    long numPods = -1;
-    long numRunningPods = -2;
-    int pollCtr =
-        Math.floorDiv(
-            maximumSecondsToWaitForReplicaSetSizeChange, secondsIntervalToPollReplicaSetSizeChange);
-
-    while ((numPods != numRunningPods || numPods != numberOfReplicas) && pollCtr >= 0) {
-      TimeUnit.SECONDS.sleep(secondsIntervalToPollReplicaSetSizeChange);
-      // two checks to make sure we are fully back in working order
-      // 1 - does the total number of pods match the replica count (for example, all terminating
-      // pods have finished terminating & no longer show up in list)
-      numPods = getApiPodCount(deployment);
-      // 2 - does the number of pods in the "ready" state matches the replica count
-      numRunningPods = getApiReadyPods(deployment);
-      pollCtr--;
-    }
+    String componentLabel = getComponentLabel();
+    String labelSelector =
+        labelSelector(componentLabel, deployment.getMetadata().getLabels().get(componentLabel));
+    PodReadinessWatch podWatch = new PodReadinessWatch(requireContext("core"), labelSelector);
+
+    // two checks to make sure we are fully back in working order
+    // 1 - does the total number of pods match the replica count (for example, all terminating
+    // pods have finished terminating & no longer show up in list)
+    // 2 - does the number of pods in the "ready" state matches the replica count
+    boolean replicaSetReady =
+        podWatch.awaitReadyPods(numberOfReplicas, maximumSecondsToWaitForReplicaSetSizeChange);
+    logger.debug(
+        "{}: {}/{} pods in ready state.",
+        labelSelector,
+        podWatch.getReadyPodCount(),
+        podWatch.getPodCount());
 
-    if (numPods != numberOfReplicas) {
+    if (!replicaSetReady) {
       throw new RuntimeException(
           "Timed out waiting for replica set size to change. (numPods="
-              + numPods
+              + podWatch.getPodCount()
+              + ", numReadyPods="
+              + podWatch.getReadyPodCount()
               + ", numberOfReplicas="
               + numberOfReplicas
               + ")");
     }
+    DisruptionEventRecorder eventRecorder = getDisruptionEventRecorder();
+    if (eventRecorder != null) {
+      eventRecorder.record(
+          DisruptionEvent.Type.RECOVERY_OBSERVED,
+          labelSelector + ": " + numberOfReplicas + "/" + numberOfReplicas + " pods ready");
+    }
   }
 
   /**
@@ -572,7 +869,7 @@ public final class KubernetesClientUtils {
    * @param podCount count of pods to scale the kubernetes deployment to
    */
   public static void changeReplicaSetSizeAndWait(int podCount) throws Exception {
-    changeReplicaSetSizeAndWait(podCount, componentLabel, apiComponentLabel);
+    changeReplicaSetSizeAndWait(podCount, getComponentLabel(), getApiComponentLabel());
   }
 
   /**
@@ -621,76 +918,37 @@ public final class KubernetesClientUtils {
   private static long getApiPodCount(V1Deployment deployment) throws ApiException {
     // loop through the pods in the namespace
     // find the ones that match the deployment component label (e.g. find all the API pods)
-    return getApiPodCount(deployment, componentLabel);
+    return getApiPodCount(deployment, getComponentLabel());
   }
 
   private static long getApiPodCount(V1Deployment deployment, String componentLabel)
       throws ApiException {
-    // loop through the pods in the namespace
-    // find the ones that match the deployment component label (e.g. find all the API pods)
-    long apiPodCount =
-        listPods().stream()
-            .filter(
-                pod ->
-                    deployment.getMetadata().getLabels().containsKey(componentLabel)
-                        && pod.getMetadata().getLabels().containsKey(componentLabel)
-                        && deployment
-                            .getMetadata()
-                            .getLabels()
-                            .get(componentLabel)
-                            .equals(pod.getMetadata().getLabels().get(componentLabel)))
-            .count();
-    return apiPodCount;
-  }
-
-  private static long getApiReadyPods(V1Deployment deployment) throws ApiException {
+    // look up the pods that match the deployment component label (e.g. find all the API pods)
     String deploymentComponentLabel = deployment.getMetadata().getLabels().get(componentLabel);
-    int transientPodCounts = listPods().size();
-    logger.debug(
-        String.format(
-            "%s: Found %s pod%s.",
-            deploymentComponentLabel, transientPodCounts, transientPodCounts > 1 ? "s" : ""));
-    // Enhanced the logic of pod readiness by checking readiness of ALL service containers within
-    // the pod. Checking only a partial set of containers for readiness might convey a false sense
-    // of pod readiness when in reality certain containers could take longer time to restart and
-    // become ready compared to others.
-    long readyPodCounts =
-        listPods().stream()
-            .filter(
-                pod ->
-                    pod.getMetadata().getLabels().containsKey(componentLabel)
-                        && deploymentComponentLabel.equals(
-                            pod.getMetadata().getLabels().get(componentLabel))
-                        && pod.getStatus().getContainerStatuses() != null
-                        && pod.getStatus().getContainerStatuses().stream()
-                            .allMatch(status -> status.getReady()))
-            .count();
-    logger.debug(
-        String.format(
-            "%s: %s/%s pod in ready state.",
-            deploymentComponentLabel, readyPodCounts, transientPodCounts));
-    return readyPodCounts;
+    if (deploymentComponentLabel == null) {
+      return 0;
+    }
+    return getResourceCache().listPodsWithLabel(componentLabel, deploymentComponentLabel).size();
   }
 
   public static void printApiPods(V1Deployment deployment) throws ApiException {
-    printApiPods(deployment, componentLabel);
+    printApiPods(deployment, getComponentLabel());
   }
 
   public static void printApiPods(V1Deployment deployment, String componentLabel)
       throws ApiException {
     String deploymentComponentLabel = deployment.getMetadata().getLabels().get(componentLabel);
-    listPods().stream()
-        .filter(
-            pod ->
-                deploymentComponentLabel.equals(pod.getMetadata().getLabels().get(componentLabel)))
+    getResourceCache().listPodsWithLabel(componentLabel, deploymentComponentLabel).stream()
         .forEach(p -> logger.debug("Pod: {}", p.getMetadata().getName()));
   }
 
   public static String getComponentLabel() {
-    return componentLabel;
+    KubernetesClientContext context = getContext();
+    return context == null ? null : context.getComponentLabel();
   }
 
   public static String getApiComponentLabel() {
-    return apiComponentLabel;
+    KubernetesClientContext context = getContext();
+    return context == null ? null : context.getApiComponentLabel();
   }
 }
@@ -0,0 +1,274 @@
+package bio.terra.testrunner.common.utils;
+
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.informer.SharedIndexInformer;
+import io.kubernetes.client.informer.SharedInformerFactory;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentList;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An in-memory cache of the pods and deployments in the target namespace that have the component
+ * label, kept up to date by informers. The informers list the namespace once and then watch it,
+ * with the component label as a server-side selector, so reading from the cache does not call the
+ * API server at all, and objects without the label are never transferred. Both caches are indexed
+ * by the value of the component label, so looking up the pods of a deployment does not scan the
+ * whole namespace. If no namespace is specified, the caches hold the pods and deployments in the
+ * whole cluster that have the component label. If there is no component label, the caches hold
+ * every pod and deployment in the namespace (or cluster).
+ *
+ * <p>The cached objects are shared, so callers must treat them as read-only.
+ */
+public class KubernetesResourceCache {
+  private static final Logger logger = LoggerFactory.getLogger(KubernetesResourceCache.class);
+
+  private static final String componentLabelIndex = "componentLabel";
+  private static final long secondsToWaitForSync = 60;
+
+  private static final Comparator<V1Pod> podsByName =
+      Comparator.comparing(pod -> pod.getMetadata().getName());
+  private static final Comparator<V1Deployment> deploymentsByName =
+      Comparator.comparing(deployment -> deployment.getMetadata().getName());
+
+  private final String componentLabel;
+  private final ExecutorService informerThreadPool;
+  private final SharedInformerFactory informerFactory;
+  private final SharedIndexInformer<V1Pod> podInformer;
+  private final SharedIndexInformer<V1Deployment> deploymentInformer;
+
+  /**
+   * Build the informers, without starting them.
+   *
+   * @param context the Kubernetes client objects and namespace to cache
+   */
+  KubernetesResourceCache(KubernetesClientContext context) {
+    this.componentLabel = context.getComponentLabel();
+
+    // daemon threads, so that a cache that is never stopped does not keep the JVM alive
+    this.informerThreadPool =
+        Executors.newCachedThreadPool(
+            KubernetesClientUtils.newUnboundDaemonThreadFactory("kubernetes-informer"));
+    this.informerFactory =
+        new SharedInformerFactory(context.getWatchApiClient(), informerThreadPool);
+
+    // only cache the objects that have the component label, if there is one, instead of every pod
+    // and deployment in the namespace (or cluster). a label key on its own selects on existence
+    String namespace = context.getNamespace();
+    boolean allNamespaces = namespace == null || namespace.isEmpty();
+    String labelSelector = componentLabel;
+    CoreV1Api coreApi = new CoreV1Api(context.getWatchApiClient());
+    AppsV1Api appsApi = new AppsV1Api(context.getWatchApiClient());
+    this.podInformer =
+        informerFactory.sharedIndexInformerFor(
+            params ->
+                allNamespaces
+                    ? coreApi.listPodForAllNamespacesCall(
+                        null,
+                        null,
+                        null,
+                        labelSelector,
+                        null,
+                        null,
+                        params.resourceVersion,
+                        null,
+                        params.timeoutSeconds,
+                        params.watch,
+                        null)
+                    : coreApi.listNamespacedPodCall(
+                        namespace,
+                        null,
+                        null,
+                        null,
+                        null,
+                        labelSelector,
+                        null,
+                        params.resourceVersion,
+                        null,
+                        params.timeoutSeconds,
+                        params.watch,
+                        null),
+            V1Pod.class,
+            V1PodList.class);
+    this.deploymentInformer =
+        informerFactory.sharedIndexInformerFor(
+            params ->
+                allNamespaces
+                    ? appsApi.listDeploymentForAllNamespacesCall(
+                        null,
+                        null,
+                        null,
+                        labelSelector,
+                        null,
+                        null,
+                        params.resourceVersion,
+                        null,
+                        params.timeoutSeconds,
+                        params.watch,
+                        null)
+                    : appsApi.listNamespacedDeploymentCall(
+                        namespace,
+                        null,
+                        null,
+                        null,
+                        null,
+                        labelSelector,
+                        null,
+                        params.resourceVersion,
+                        null,
+                        params.timeoutSeconds,
+                        params.watch,
+                        null),
+            V1Deployment.class,
+            V1DeploymentList.class);
+
+    if (componentLabel != null) {
+      Function<V1Pod, List<String>> podIndexFunction =
+          pod -> componentLabelValue(pod.getMetadata());
+      Function<V1Deployment, List<String>> deploymentIndexFunction =
+          deployment -> componentLabelValue(deployment.getMetadata());
+      podInformer.addIndexers(Map.of(componentLabelIndex, podIndexFunction));
+      deploymentInformer.addIndexers(Map.of(componentLabelIndex, deploymentIndexFunction));
+    }
+  }
+
+  /**
+   * Start the informers, and wait until they have listed the namespace.
+   *
+   * @throws ApiException if the informers did not sync in time
+   */
+  void start() throws ApiException, InterruptedException {
+    informerFactory.startAllRegisteredInformers();
+    long deadlineNS = System.nanoTime() + TimeUnit.SECONDS.toNanos(secondsToWaitForSync);
+    while (!podInformer.hasSynced() || !deploymentInformer.hasSynced()) {
+      if (System.nanoTime() > deadlineNS) {
+        stop();
+        throw new ApiException(
+            "Timed out waiting for the Kubernetes pod and deployment caches to sync after "
+                + secondsToWaitForSync
+                + " seconds");
+      }
+      TimeUnit.MILLISECONDS.sleep(100);
+    }
+    logger.debug(
+        "Kubernetes: Cache synced with {} pods and {} deployments",
+        podInformer.getIndexer().list().size(),
+        deploymentInformer.getIndexer().list().size());
+  }
+
+  /** Stop the informers. The cache is not updated after this. */
+  void stop() {
+    informerFactory.stopAllRegisteredInformers();
+    informerThreadPool.shutdownNow();
+  }
+
+  /**
+   * Call the handler whenever a cached pod is added, changed or deleted. The handler is called on
+   * an informer thread, so it should return quickly.
+   *
+   * @param handler the handler to add
+   */
+  public void addPodEventHandler(ResourceEventHandler<V1Pod> handler) {
+    podInformer.addEventHandler(handler);
+  }
+
+  /**
+   * List the cached pods. If there is a component label, these are only the pods that have it, not
+   * every pod in the namespace (or cluster).
+   *
+   * @return the cached pods, sorted by name
+   */
+  public List<V1Pod> listPods() {
+    return sorted(podInformer.getIndexer().list(), podsByName);
+  }
+
+  /**
+   * List the cached deployments. If there is a component label, these are only the deployments that
+   * have it, not every deployment in the namespace (or cluster).
+   *
+   * @return the cached deployments, sorted by name
+   */
+  public List<V1Deployment> listDeployments() {
+    return sorted(deploymentInformer.getIndexer().list(), deploymentsByName);
+  }
+
+  /**
+   * List the cached pods with the given label value. Only the cached pods are searched, so if there
+   * is a component label, pods without it are not found even if they have the given label.
+   *
+   * @param label label key, the component label is looked up in the index
+   * @param value label value
+   * @return the pods with the given label value, sorted by name
+   */
+  public List<V1Pod> listPodsWithLabel(String label, String value) {
+    if (componentLabel != null && componentLabel.equals(label)) {
+      return sorted(podInformer.getIndexer().byIndex(componentLabelIndex, value), podsByName);
+    }
+    List<V1Pod> pods = new ArrayList<>();
+    for (V1Pod pod : listPods()) {
+      if (hasLabel(pod.getMetadata(), label, value)) {
+        pods.add(pod);
+      }
+    }
+    return pods;
+  }
+
+  /**
+   * List the cached deployments with the given label value. Only the cached deployments are
+   * searched, so if there is a component label, deployments without it are not found even if they
+   * have the given label.
+   *
+   * @param label label key, the component label is looked up in the index
+   * @param value label value
+   * @return the deployments with the given label value, sorted by name
+   */
+  public List<V1Deployment> listDeploymentsWithLabel(String label, String value) {
+    if (componentLabel != null && componentLabel.equals(label)) {
+      return sorted(
+          deploymentInformer.getIndexer().byIndex(componentLabelIndex, value), deploymentsByName);
+    }
+    List<V1Deployment> deployments = new ArrayList<>();
+    for (V1Deployment deployment : listDeployments()) {
+      if (hasLabel(deployment.getMetadata(), label, value)) {
+        deployments.add(deployment);
+      }
+    }
+    return deployments;
+  }
+
+  private List<String> componentLabelValue(V1ObjectMeta metadata) {
+    if (metadata == null || metadata.getLabels() == null) {
+      return Collections.emptyList();
+    }
+    String value = metadata.getLabels().get(componentLabel);
+    return value == null ? Collections.emptyList() : Collections.singletonList(value);
+  }
+
+  private static boolean hasLabel(V1ObjectMeta metadata, String label, String value) {
+    return metadata != null
+        && metadata.getLabels() != null
+        && value != null
+        && value.equals(metadata.getLabels().get(label));
+  }
+
+  private static <T> List<T> sorted(List<T> items, Comparator<T> comparator) {
+    List<T> sortedItems = new ArrayList<>(items);
+    sortedItems.sort(comparator);
+    return sortedItems;
+  }
+}
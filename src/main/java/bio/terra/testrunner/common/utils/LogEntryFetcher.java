@@ -0,0 +1,233 @@
+package bio.terra.testrunner.common.utils;
+
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.logging.v2.LoggingClient;
+import com.google.logging.v2.ListLogEntriesRequest;
+import com.google.logging.v2.ListLogEntriesResponse;
+import com.google.logging.v2.LogEntry;
+import com.google.logging.v2.ProjectName;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fetches the log entries that match a filter over a time range, faster than walking the pages of a
+ * single ListLogEntries request. The time range is split into slices that are fetched in parallel,
+ * each one page at a time. A page that fails with a quota or other retryable error is retried with
+ * exponential backoff.
+ *
+ * <p>The entries are passed to the consumer as each page arrives, so they are never all held in
+ * memory. The consumer is called by one thread at a time, but the entries of different slices are
+ * interleaved, so they are not in timestamp order overall.
+ *
+ * <p>The pages are fetched through a {@link PageSource}, so a fake of the logging API can be
+ * substituted for the real client.
+ */
+public class LogEntryFetcher {
+  private static final Logger logger = LoggerFactory.getLogger(LogEntryFetcher.class);
+
+  // the largest page size the logging API allows
+  private static final int pageSize = 1000;
+
+  private final PageSource pageSource;
+  private int maxParallelism = 4;
+  private long sliceSeconds = 300;
+  private int maxRetries = 6;
+  private long initialBackoffMillis = 1000;
+
+  /** Fetches a single page of log entries. */
+  @FunctionalInterface
+  public interface PageSource {
+    ListLogEntriesResponse listLogEntries(ListLogEntriesRequest request) throws Exception;
+  }
+
+  /**
+   * @param pageSource where to fetch the pages from
+   */
+  public LogEntryFetcher(PageSource pageSource) {
+    this.pageSource = pageSource;
+  }
+
+  /**
+   * Build a fetcher that calls the logging API.
+   *
+   * @param loggingServiceClient the client, e.g. from {@link LogsUtils#getClientForServiceAccount}
+   */
+  public static LogEntryFetcher forClient(LoggingClient loggingServiceClient) {
+    return new LogEntryFetcher(
+        request -> loggingServiceClient.listLogEntriesCallable().call(request));
+  }
+
+  /** Set the maximum number of slices fetched at the same time. The default is 4. */
+  public LogEntryFetcher setMaxParallelism(int maxParallelism) {
+    if (maxParallelism <= 0) {
+      throw new IllegalArgumentException("Maximum parallelism must be greater than 0");
+    }
+    this.maxParallelism = maxParallelism;
+    return this;
+  }
+
+  /** Set the length of each time slice. The default is 300 seconds. */
+  public LogEntryFetcher setSliceSeconds(long sliceSeconds) {
+    if (sliceSeconds <= 0) {
+      throw new IllegalArgumentException("Slice length must be greater than 0");
+    }
+    this.sliceSeconds = sliceSeconds;
+    return this;
+  }
+
+  /**
+   * Set how many times a failed page is retried, and the delay before the first retry. The delay
+   * doubles with each retry. The defaults are 6 retries and 1 second.
+   */
+  public LogEntryFetcher setRetries(int maxRetries, long initialBackoffMillis) {
+    if (maxRetries < 0 || initialBackoffMillis < 0) {
+      throw new IllegalArgumentException("Retries and backoff cannot be negative");
+    }
+    this.maxRetries = maxRetries;
+    this.initialBackoffMillis = initialBackoffMillis;
+    return this;
+  }
+
+  /**
+   * Fetch all the log entries that match the filter and fall in the time range.
+   *
+   * @param project the project that the logs belong to
+   * @param filter the logging filter, e.g. from {@link
+   *     LogsUtils#buildStdoutContainerAndNamespaceFilter}. The time slices are added to it.
+   * @param startTimeMS start of the time range, milliseconds since the epoch
+   * @param endTimeMS end of the time range (inclusive), milliseconds since the epoch
+   * @param consumer called for each entry
+   * @return the number of entries fetched
+   */
+  public long fetch(
+      ProjectName project,
+      String filter,
+      long startTimeMS,
+      long endTimeMS,
+      Consumer<LogEntry> consumer)
+      throws Exception {
+    if (endTimeMS < startTimeMS) {
+      throw new IllegalArgumentException("End time is before the start time");
+    }
+
+    // split the time range into slices. the last one includes the end time
+    List<String> sliceFilters = new ArrayList<>();
+    long sliceMS = sliceSeconds * 1000;
+    for (long sliceStartMS = startTimeMS; sliceStartMS <= endTimeMS; sliceStartMS += sliceMS) {
+      boolean lastSlice = endTimeMS - sliceStartMS < sliceMS;
+      sliceFilters.add(
+          "("
+              + filter
+              + ") AND timestamp>=\""
+              + Instant.ofEpochMilli(sliceStartMS)
+              + "\" AND timestamp"
+              + (lastSlice ? "<=" : "<")
+              + "\""
+              + Instant.ofEpochMilli(lastSlice ? endTimeMS : sliceStartMS + sliceMS)
+              + "\"");
+      if (lastSlice) {
+        break;
+      }
+    }
+    logger.info(
+        "Fetching log entries in {} slices of {} seconds, {} at a time",
+        sliceFilters.size(),
+        sliceSeconds,
+        Math.min(maxParallelism, sliceFilters.size()));
+
+    // the consumer doesn't need to be thread-safe, the slices take turns calling it
+    Consumer<LogEntry> serializedConsumer =
+        entry -> {
+          synchronized (consumer) {
+            consumer.accept(entry);
+          }
+        };
+
+    ExecutorService threadPool =
+        Executors.newFixedThreadPool(Math.min(maxParallelism, sliceFilters.size()));
+    try {
+      List<Future<Long>> sliceFutures = new ArrayList<>();
+      for (String sliceFilter : sliceFilters) {
+        sliceFutures.add(
+            threadPool.submit(() -> fetchSlice(project, sliceFilter, serializedConsumer)));
+      }
+
+      long numEntries = 0;
+      for (Future<Long> sliceFuture : sliceFutures) {
+        try {
+          numEntries += sliceFuture.get();
+        } catch (ExecutionException execEx) {
+          // stop fetching the other slices, the result would be incomplete anyway
+          if (execEx.getCause() instanceof Exception) {
+            throw (Exception) execEx.getCause();
+          }
+          throw execEx;
+        }
+      }
+      logger.info("Fetched {} log entries", numEntries);
+      return numEntries;
+    } finally {
+      threadPool.shutdownNow();
+    }
+  }
+
+  /** Fetch the pages of a single slice, one at a time. */
+  private long fetchSlice(ProjectName project, String sliceFilter, Consumer<LogEntry> consumer)
+      throws Exception {
+    long numEntries = 0;
+    String pageToken = "";
+    do {
+      ListLogEntriesRequest request =
+          ListLogEntriesRequest.newBuilder()
+              .addResourceNames(project.toString())
+              .setFilter(sliceFilter)
+              .setPageSize(pageSize)
+              .setPageToken(pageToken)
+              .build();
+      ListLogEntriesResponse page = fetchPageWithRetries(request);
+      for (LogEntry entry : page.getEntriesList()) {
+        consumer.accept(entry);
+      }
+      numEntries += page.getEntriesCount();
+      pageToken = page.getNextPageToken();
+    } while (!pageToken.isEmpty());
+    return numEntries;
+  }
+
+  private ListLogEntriesResponse fetchPageWithRetries(ListLogEntriesRequest request)
+      throws Exception {
+    long backoffMillis = initialBackoffMillis;
+    for (int retry = 0; ; retry++) {
+      try {
+        return pageSource.listLogEntries(request);
+      } catch (ApiException apiEx) {
+        if (retry >= maxRetries || !isRetryable(apiEx)) {
+          throw apiEx;
+        }
+        // add up to 50% jitter, so the slices that hit the quota together don't retry together
+        long sleepMillis =
+            backoffMillis + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1);
+        logger.debug(
+            "Retrying log entries page in {} ms after error: {}", sleepMillis, apiEx.getMessage());
+        Thread.sleep(sleepMillis);
+        backoffMillis *= 2;
+      }
+    }
+  }
+
+  /** The logging API's read quota is low, so running out of it is expected here. */
+  private static boolean isRetryable(ApiException apiEx) {
+    return apiEx.isRetryable()
+        || apiEx.getStatusCode().getCode() == StatusCode.Code.RESOURCE_EXHAUSTED;
+  }
+}
@@ -48,7 +48,25 @@ public class LogsUtils {
     return loggingServiceClient;
   }
 
-  /** Request the raw logging data points. */
+  /**
+   * Get the shared Google Logging client object with credentials for a given service account.
+   *
+   * @see GoogleClientRegistry
+   */
+  public static LoggingClient getSharedClientForServiceAccount(
+      ServiceAccountSpecification serviceAccount) throws Exception {
+    return GoogleClientRegistry.getClient(
+        LoggingClient.class,
+        serviceAccount,
+        loggingReadScope,
+        null,
+        () -> getClientForServiceAccount(serviceAccount));
+  }
+
+  /**
+   * Request the raw logging data points, one page at a time. To fetch all the entries over a long
+   * time range, {@link LogEntryFetcher} is much faster.
+   */
   public static LoggingClient.ListLogEntriesPagedResponse requestLogEntries(
       LoggingClient loggingServiceClient, ProjectName project, String filter, String pageToken)
       throws Exception {
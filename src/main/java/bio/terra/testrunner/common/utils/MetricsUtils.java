@@ -8,12 +8,15 @@ import com.google.cloud.monitoring.v3.MetricServiceClient;
 import com.google.cloud.monitoring.v3.MetricServiceSettings;
 import com.google.monitoring.v3.Aggregation;
 import com.google.monitoring.v3.ListTimeSeriesRequest;
+import com.google.monitoring.v3.Point;
 import com.google.monitoring.v3.ProjectName;
 import com.google.monitoring.v3.TimeInterval;
+import com.google.monitoring.v3.TimeSeries;
 import com.google.protobuf.util.Timestamps;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,6 +51,21 @@ public class MetricsUtils {
     return metricServiceClient;
   }
 
+  /**
+   * Get the shared Google Metrics client object with credentials for a given service account.
+   *
+   * @see GoogleClientRegistry
+   */
+  public static MetricServiceClient getSharedClientForServiceAccount(
+      ServiceAccountSpecification serviceAccount) throws Exception {
+    return GoogleClientRegistry.getClient(
+        MetricServiceClient.class,
+        serviceAccount,
+        monitoringReadScope,
+        null,
+        () -> getClientForServiceAccount(serviceAccount));
+  }
+
   /** Request the raw metrics data points. */
   public static MetricServiceClient.ListTimeSeriesPagedResponse requestTimeSeriesDataPoints(
       MetricServiceClient metricServiceClient,
@@ -72,6 +90,38 @@ public class MetricsUtils {
     return response;
   }
 
+  /**
+   * Request the raw metrics data points, and pass each one to the consumer as its page arrives. The
+   * next page is only requested after the consumer has seen all the points on the current one, so
+   * the points are never all held in memory. Use this for high-resolution metrics over long time
+   * intervals, together with {@link bio.terra.testrunner.common.StreamingStatistics}.
+   *
+   * @param consumer called with each data point and the time series it belongs to. The points of a
+   *     time series are in reverse time order, as the API returns them.
+   * @return the number of data points
+   */
+  public static long streamTimeSeriesDataPoints(
+      MetricServiceClient metricServiceClient,
+      ProjectName project,
+      String filter,
+      TimeInterval interval,
+      Aggregation aggregation,
+      BiConsumer<TimeSeries, Point> consumer)
+      throws Exception {
+    MetricServiceClient.ListTimeSeriesPagedResponse response =
+        requestTimeSeriesDataPoints(metricServiceClient, project, filter, interval, aggregation);
+    long numDataPoints = 0;
+    for (MetricServiceClient.ListTimeSeriesPage page : response.iteratePages()) {
+      for (TimeSeries timeSeries : page.getValues()) {
+        for (Point point : timeSeries.getPointsList()) {
+          consumer.accept(timeSeries, point);
+          numDataPoints++;
+        }
+      }
+    }
+    return numDataPoints;
+  }
+
   /**
    * Build a TimeInterval object that spans the given duration. Force it to be at least 5 minutes
    * long.
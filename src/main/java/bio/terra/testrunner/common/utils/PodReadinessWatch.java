@@ -0,0 +1,171 @@
+package bio.terra.testrunner.common.utils;
+
+import com.google.gson.reflect.TypeToken;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodList;
+import io.kubernetes.client.util.Watch;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks the pods that match a label selector, to wait for a replica set to reach its size. The
+ * pods are listed once, and then a watch from that point on streams every change to them, so a
+ * change is seen as soon as it happens. The list is only repeated if the watch falls too far behind
+ * (e.g. the API server compacted the resource version it was watching from).
+ *
+ * <p>This class is not thread-safe.
+ */
+final class PodReadinessWatch {
+  private static final Logger logger = LoggerFactory.getLogger(PodReadinessWatch.class);
+
+  // the API server ends each watch after this long, and the watch is restarted from the last
+  // resource version seen
+  private static final int maximumSecondsPerWatch = 60;
+
+  private final KubernetesClientContext context;
+  private final String labelSelector;
+  private final Map<String, V1Pod> podsByName = new HashMap<>();
+  private String resourceVersion;
+
+  /**
+   * @param context the Kubernetes client objects and namespace to watch
+   * @param labelSelector the pods to track, e.g. component=api
+   */
+  PodReadinessWatch(KubernetesClientContext context, String labelSelector) {
+    this.context = context;
+    this.labelSelector = labelSelector;
+  }
+
+  /**
+   * Wait until the number of pods matching the label selector, and the number of those that are
+   * ready, both equal the expected count.
+   *
+   * @param expectedPods the expected number of pods
+   * @param timeoutSeconds maximum time to wait
+   * @return true if the pods reached the expected count, false if the wait timed out
+   */
+  boolean awaitReadyPods(int expectedPods, long timeoutSeconds)
+      throws ApiException, InterruptedException {
+    long deadlineNS = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+    relist();
+    while (!hasReadyPods(expectedPods)) {
+      long remainingSeconds = TimeUnit.NANOSECONDS.toSeconds(deadlineNS - System.nanoTime());
+      if (remainingSeconds <= 0) {
+        return false;
+      }
+      if (Thread.interrupted()) {
+        throw new InterruptedException("Interrupted while waiting for pods: " + labelSelector);
+      }
+      boolean watchIsCurrent = watchUntilReady(expectedPods, remainingSeconds);
+      if (!watchIsCurrent) {
+        relist();
+      }
+    }
+    return true;
+  }
+
+  long getPodCount() {
+    return podsByName.size();
+  }
+
+  long getReadyPodCount() {
+    return podsByName.values().stream().filter(KubernetesClientUtils::isPodReady).count();
+  }
+
+  /**
+   * Apply the watch events to the tracked pods until they reach the expected count, or the watch
+   * ends.
+   *
+   * @return false if the tracked pods need to be listed again before the next watch
+   */
+  private boolean watchUntilReady(int expectedPods, long remainingSeconds) throws ApiException {
+    int watchSeconds = (int) Math.min(remainingSeconds, maximumSecondsPerWatch);
+    try (Watch<V1Pod> watch =
+        Watch.createWatch(
+            context.getWatchApiClient(),
+            newWatchCall(watchSeconds),
+            new TypeToken<Watch.Response<V1Pod>>() {}.getType())) {
+      for (Watch.Response<V1Pod> event : watch) {
+        switch (event.type) {
+          case "ADDED":
+          case "MODIFIED":
+            podsByName.put(event.object.getMetadata().getName(), event.object);
+            break;
+          case "DELETED":
+            podsByName.remove(event.object.getMetadata().getName());
+            break;
+          case "BOOKMARK":
+            break;
+          default: // ERROR, most likely the resource version is too old to watch from
+            logger.debug(
+                "Kubernetes: Pod watch error, listing the pods again: {}",
+                event.status == null ? event.type : event.status.getMessage());
+            return false;
+        }
+        resourceVersion = event.object.getMetadata().getResourceVersion();
+        if (hasReadyPods(expectedPods)) {
+          return true;
+        }
+      }
+      return true;
+    } catch (IOException | RuntimeException watchEx) {
+      // the watch iterator wraps connection errors in a runtime exception
+      logger.debug("Kubernetes: Pod watch ended with an error, listing the pods again", watchEx);
+      return false;
+    }
+  }
+
+  /** List the pods matching the label selector, and remember where to start watching from. */
+  private void relist() throws ApiException {
+    V1PodList list = KubernetesClientUtils.listPodPages(context, labelSelector, null);
+    podsByName.clear();
+    for (V1Pod pod : list.getItems()) {
+      podsByName.put(pod.getMetadata().getName(), pod);
+    }
+    resourceVersion = list.getMetadata().getResourceVersion();
+  }
+
+  private Call newWatchCall(int watchSeconds) throws ApiException {
+    // the watch call must be built by the client without a read timeout
+    CoreV1Api watchCoreApi = new CoreV1Api(context.getWatchApiClient());
+    String namespace = context.getNamespace();
+    if (namespace == null || namespace.isEmpty()) {
+      return watchCoreApi.listPodForAllNamespacesCall(
+          true,
+          null,
+          null,
+          labelSelector,
+          null,
+          null,
+          resourceVersion,
+          null,
+          watchSeconds,
+          true,
+          null);
+    }
+    return watchCoreApi.listNamespacedPodCall(
+        namespace,
+        null,
+        true,
+        null,
+        null,
+        labelSelector,
+        null,
+        resourceVersion,
+        null,
+        watchSeconds,
+        true,
+        null);
+  }
+
+  private boolean hasReadyPods(int expectedPods) {
+    return getPodCount() == expectedPods && getReadyPodCount() == expectedPods;
+  }
+}
@@ -37,6 +37,21 @@ public class StorageUtils {
     return storageClient;
   }
 
+  /**
+   * Get the shared Google Storage client object with credentials for a given service account.
+   *
+   * @see GoogleClientRegistry
+   */
+  public static Storage getSharedClientForServiceAccount(ServiceAccountSpecification serviceAccount)
+      throws Exception {
+    return GoogleClientRegistry.getClient(
+        Storage.class,
+        serviceAccount,
+        storageScope,
+        null,
+        () -> getClientForServiceAccount(serviceAccount));
+  }
+
   /**
    * Write the contents of a byte array to a file in the given GCS bucket.
    *
@@ -0,0 +1,223 @@
+package bio.terra.testrunner.runner;
+
+import bio.terra.testrunner.runner.config.ArrivalRateSpecification;
+import bio.terra.testrunner.runner.config.LoadPhaseSpecification;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates the intended start times of user journeys for an open-model arrival rate. The start
+ * times are offsets from the beginning of the dispatch, and depend only on the arrival rate
+ * specification, never on how long the earlier user journeys took.
+ *
+ * <p>This class is not thread-safe. Each test script dispatcher should use its own instance.
+ */
+public class ArrivalSchedule {
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  // the PHASES profile approximates a SINE phase by this many linear pieces per period
+  private static final int SINE_PIECES_PER_PERIOD = 100;
+
+  // rounding error in the integral, so that an arrival due right at the end of a phase is kept
+  private static final double ARRIVAL_TOLERANCE = 1e-9;
+
+  private final ArrivalRateSpecification specification;
+  private final Random random;
+
+  // offset of the next arrival, in seconds since the beginning of the dispatch
+  private double nextArrivalSeconds = 0;
+
+  // fraction of an arrival accumulated since the last one, for the PHASES profile
+  private double accumulatedArrivals = 0;
+
+  // the phase that contains the next arrival, for the PHASES profile. offsets only move forward,
+  // so the phases never need to be scanned from the beginning again
+  private int phaseIndex = 0;
+  private double phaseStartSeconds = 0;
+
+  public ArrivalSchedule(ArrivalRateSpecification specification) {
+    this.specification = specification;
+    this.random =
+        specification.randomSeed == null ? new Random() : new Random(specification.randomSeed);
+  }
+
+  /**
+   * Return the intended start time of the next user journey and advance the schedule.
+   *
+   * @return offset from the beginning of the dispatch in nanoseconds, or -1 if the profile has no
+   *     more arrivals
+   */
+  public long nextArrivalOffsetNS() {
+    double arrivalSeconds = nextArrivalSeconds;
+    switch (specification.profile) {
+      case CONSTANT:
+        nextArrivalSeconds += 1.0 / specification.ratePerSecond;
+        break;
+      case POISSON:
+        // inverse transform sampling of the exponential distribution
+        nextArrivalSeconds += -Math.log(1.0 - random.nextDouble()) / specification.ratePerSecond;
+        break;
+      case STEP:
+        arrivalSeconds = skipIdleSteps(arrivalSeconds);
+        if (arrivalSeconds < 0) {
+          return -1;
+        }
+        nextArrivalSeconds = arrivalSeconds + 1.0 / stepRateAt(arrivalSeconds);
+        break;
+      case PHASES:
+        arrivalSeconds = integrateToNextPhaseArrival();
+        if (arrivalSeconds < 0) {
+          return -1;
+        }
+        break;
+      default:
+        throw new IllegalArgumentException(
+            "Unsupported arrival rate profile: " + specification.profile);
+    }
+    return (long) (arrivalSeconds * NANOS_PER_SECOND);
+  }
+
+  /**
+   * Return the name of the load phase that contains the given offset.
+   *
+   * @param offsetNS offset from the beginning of the dispatch in nanoseconds
+   * @return the phase name, or null if the profile does not have phases or the offset is past the
+   *     end of the last phase
+   */
+  public String phaseAt(long offsetNS) {
+    if (specification.profile != ArrivalRateSpecification.Profile.PHASES) {
+      return null;
+    }
+    double offsetSeconds = (double) offsetNS / NANOS_PER_SECOND;
+    double phaseEndSeconds = 0;
+    for (LoadPhaseSpecification phase : specification.phases) {
+      phaseEndSeconds += phase.durationSeconds;
+      if (offsetSeconds < phaseEndSeconds) {
+        return phase.name;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Advance through the phases until the integral of the target rate since the last arrival adds up
+   * to one more arrival. Each phase is integrated in closed form, one piece at a time, where each
+   * piece has a constant or linearly changing rate. So a long idle or low-rate phase costs a single
+   * step, not one step per millisecond.
+   *
+   * @return the offset of the next arrival in seconds, or -1 if the phases end first
+   */
+  private double integrateToNextPhaseArrival() {
+    double offsetSeconds = nextArrivalSeconds;
+    while (phaseIndex < specification.phases.size()) {
+      LoadPhaseSpecification phase = specification.phases.get(phaseIndex);
+      double phaseEndSeconds = phaseStartSeconds + phase.durationSeconds;
+      if (offsetSeconds >= phaseEndSeconds) {
+        phaseIndex++;
+        phaseStartSeconds = phaseEndSeconds;
+        continue;
+      }
+
+      // the rate over the rest of this piece is startRate + slope * (seconds since the offset).
+      // rounding can put the end of the piece at the offset itself, so always move forward
+      double secondsIntoPhase = offsetSeconds - phaseStartSeconds;
+      double pieceEndOffsetSeconds =
+          Math.min(
+              Math.max(
+                  phaseStartSeconds + linearPieceEnd(phase, secondsIntoPhase),
+                  Math.nextUp(offsetSeconds)),
+              phaseEndSeconds);
+      double pieceSeconds = pieceEndOffsetSeconds - offsetSeconds;
+      double startRate = phase.ratePerSecondAt(secondsIntoPhase);
+      double endRate =
+          hasContinuousRate(phase)
+              ? phase.ratePerSecondAt(pieceEndOffsetSeconds - phaseStartSeconds)
+              : startRate;
+      double slope = (endRate - startRate) / pieceSeconds;
+      double arrivalsInPiece = (startRate + endRate) / 2 * pieceSeconds;
+
+      // either the next arrival falls within this piece, or accumulate the whole piece
+      double neededArrivals = 1 - accumulatedArrivals;
+      if (arrivalsInPiece >= neededArrivals - ARRIVAL_TOLERANCE) {
+        // solve startRate * x + slope / 2 * x^2 = neededArrivals for the smallest x >= 0. this form
+        // of the quadratic formula also holds for a slope of zero
+        double discriminant = Math.max(startRate * startRate + 2 * slope * neededArrivals, 0);
+        double arrivalSeconds = 2 * neededArrivals / (startRate + Math.sqrt(discriminant));
+        offsetSeconds += Math.min(arrivalSeconds, pieceSeconds);
+        accumulatedArrivals = 0;
+        nextArrivalSeconds = offsetSeconds;
+        return offsetSeconds;
+      }
+      accumulatedArrivals += arrivalsInPiece;
+      offsetSeconds = pieceEndOffsetSeconds;
+    }
+    return -1;
+  }
+
+  /**
+   * Return the end of the piece of the phase that contains the given offset. The rate is constant
+   * over each piece, or changes linearly for a LINEAR_RAMP phase. A SINE phase is approximated by
+   * linear pieces.
+   *
+   * @param phase the load phase
+   * @param secondsIntoPhase offset from the beginning of the phase
+   * @return the end of the piece, in seconds from the beginning of the phase
+   */
+  private static double linearPieceEnd(LoadPhaseSpecification phase, double secondsIntoPhase) {
+    double pieceSeconds;
+    switch (phase.shape) {
+      case STAIRCASE:
+        pieceSeconds = (double) phase.durationSeconds / phase.numberOfSteps;
+        break;
+      case SINE:
+        pieceSeconds = phase.periodSeconds / SINE_PIECES_PER_PERIOD;
+        break;
+      case SPIKE_THEN_HOLD:
+        return secondsIntoPhase < phase.spikeDurationSeconds
+            ? Math.min(phase.spikeDurationSeconds, phase.durationSeconds)
+            : phase.durationSeconds;
+      default:
+        return phase.durationSeconds;
+    }
+    return Math.min(
+        (Math.floor(secondsIntoPhase / pieceSeconds) + 1) * pieceSeconds, phase.durationSeconds);
+  }
+
+  /** The shapes whose rate is continuous, so the rate at the end of a piece belongs to it. */
+  private static boolean hasContinuousRate(LoadPhaseSpecification phase) {
+    return phase.shape == LoadPhaseSpecification.Shape.LINEAR_RAMP
+        || phase.shape == LoadPhaseSpecification.Shape.SINE;
+  }
+
+  /**
+   * Return the rate of the step that contains the given offset, or 0 if the offset is past the end
+   * of the last step.
+   */
+  private double stepRateAt(double offsetSeconds) {
+    double stepEndSeconds = 0;
+    for (ArrivalRateSpecification.Step step : specification.steps) {
+      stepEndSeconds += step.durationSeconds;
+      if (offsetSeconds < stepEndSeconds) {
+        return step.ratePerSecond;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Move the given offset forward past any steps with a zero rate.
+   *
+   * @return the first offset at or after the given one with a non-zero rate, or -1 if there is none
+   */
+  private double skipIdleSteps(double offsetSeconds) {
+    double stepStartSeconds = 0;
+    for (ArrivalRateSpecification.Step step : specification.steps) {
+      double stepEndSeconds = stepStartSeconds + step.durationSeconds;
+      if (offsetSeconds < stepEndSeconds && step.ratePerSecond > 0) {
+        return Math.max(offsetSeconds, stepStartSeconds);
+      }
+      stepStartSeconds = stepEndSeconds;
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,53 @@
+package bio.terra.testrunner.runner;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * A timestamped event recorded while a disruptive script runs (e.g. a pod was deleted, or the
+ * replica set recovered). The offset fields line the event up with the windows of the user journey
+ * time series, so the latency and errors around each disruption can be measured.
+ */
+@SuppressFBWarnings(
+    value = "URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD",
+    justification = "This POJO class is used for easy serialization to JSON using Jackson.")
+public class DisruptionEvent {
+  public enum Type {
+    DISRUPTION_STARTED,
+    DISRUPTION_FINISHED,
+    DISRUPTION_FAILED,
+    POD_DELETED,
+    REPLICA_COUNT_CHANGED,
+    RECOVERY_OBSERVED,
+    CUSTOM
+  }
+
+  public Type type;
+  public String description;
+  public long timestamp; // milliseconds since the epoch
+
+  // offset from the beginning of the user journey portion of the test run, negative if before it
+  public double offsetSeconds;
+  // start of the time series window that contains the event, null if before the first window
+  public Long windowStartSeconds;
+
+  public DisruptionEvent() {} // default constructor so Jackson can deserialize
+
+  DisruptionEvent(Type type, String description, long timestamp) {
+    this.type = type;
+    this.description = description;
+    this.timestamp = timestamp;
+  }
+
+  /**
+   * Set the offset fields, relative to the start of the user journeys.
+   *
+   * @param startUserJourneyTime milliseconds since the epoch
+   * @param windowSeconds length of the time series windows
+   */
+  void alignTo(long startUserJourneyTime, long windowSeconds) {
+    long offsetMillis = timestamp - startUserJourneyTime;
+    offsetSeconds = offsetMillis / 1000.0;
+    windowStartSeconds =
+        offsetMillis < 0 ? null : offsetMillis / 1000 / windowSeconds * windowSeconds;
+  }
+}
@@ -0,0 +1,124 @@
+package bio.terra.testrunner.runner;
+
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1Pod;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the disruption events of a test run, in the order they happened. The disruptive script
+ * records its own events, and the Kubernetes utility methods record the pods they delete and the
+ * replica sets they scale. This class is thread-safe.
+ */
+public class DisruptionEventRecorder {
+  private static final Logger logger = LoggerFactory.getLogger(DisruptionEventRecorder.class);
+
+  private final List<DisruptionEvent> events = new ArrayList<>();
+
+  // set if the pods can be watched, to measure how long each disruption takes to recover from
+  private volatile RecoveryTimeTracker recoveryTimeTracker;
+
+  void setRecoveryTimeTracker(RecoveryTimeTracker recoveryTimeTracker) {
+    this.recoveryTimeTracker = recoveryTimeTracker;
+  }
+
+  /**
+   * Record an event, timestamped now.
+   *
+   * @param type the kind of event
+   * @param description what happened, e.g. the name of the deleted pod
+   */
+  public synchronized void record(DisruptionEvent.Type type, String description) {
+    logger.info("Disruption: {} {}", type, description);
+    events.add(new DisruptionEvent(type, description, System.currentTimeMillis()));
+  }
+
+  /**
+   * Start measuring the time until the replacement of a pod is ready. Call this just before
+   * deleting the pod, then either {@link #recordPodDeleted} or {@link #cancelPodDeletion}.
+   *
+   * @param podName the name of the pod to delete
+   * @param pod the pod as it is before the deletion, null if unknown
+   * @param podNamesBefore the names of the pods in the namespace before the deletion
+   */
+  public void trackPodDeletion(String podName, V1Pod pod, Set<String> podNamesBefore) {
+    RecoveryTimeTracker tracker = recoveryTimeTracker;
+    if (tracker != null && pod != null && pod.getMetadata().getLabels() != null) {
+      tracker.trackRecovery(
+          podRecoveryDescription(podName), pod.getMetadata().getLabels(), podNamesBefore, 1);
+    }
+  }
+
+  /**
+   * Record a pod deletion.
+   *
+   * @param podName the name of the deleted pod
+   */
+  public void recordPodDeleted(String podName) {
+    record(DisruptionEvent.Type.POD_DELETED, podName);
+  }
+
+  /**
+   * Stop measuring the recovery of a pod that could not be deleted.
+   *
+   * @param podName the name of the pod, as passed to {@link #trackPodDeletion}
+   */
+  public void cancelPodDeletion(String podName) {
+    RecoveryTimeTracker tracker = recoveryTimeTracker;
+    if (tracker != null) {
+      tracker.cancelRecovery(podRecoveryDescription(podName));
+    }
+  }
+
+  private static String podRecoveryDescription(String podName) {
+    return "pod " + podName;
+  }
+
+  /**
+   * Record a change to the size of a replica set. If it grew, start measuring the time until the
+   * new pods are ready.
+   *
+   * @param deployment the changed deployment
+   * @param previousReplicas the size of the replica set before the change, null if unknown
+   * @param numberOfReplicas the new size of the replica set
+   * @param podNamesBefore the names of the pods in the namespace before the change
+   */
+  public void recordReplicaCountChanged(
+      V1Deployment deployment,
+      Integer previousReplicas,
+      int numberOfReplicas,
+      Set<String> podNamesBefore) {
+    String deploymentName = deployment.getMetadata().getName();
+    record(
+        DisruptionEvent.Type.REPLICA_COUNT_CHANGED,
+        deploymentName + ": " + previousReplicas + " -> " + numberOfReplicas);
+    RecoveryTimeTracker tracker = recoveryTimeTracker;
+    if (tracker != null
+        && previousReplicas != null
+        && numberOfReplicas > previousReplicas
+        && deployment.getSpec().getSelector().getMatchLabels() != null) {
+      tracker.trackRecovery(
+          "deployment " + deploymentName,
+          deployment.getSpec().getSelector().getMatchLabels(),
+          podNamesBefore,
+          numberOfReplicas - previousReplicas);
+    }
+  }
+
+  /**
+   * Get the events recorded so far, lined up with the user journey time series.
+   *
+   * @param startUserJourneyTime milliseconds since the epoch
+   * @param windowSeconds length of the time series windows
+   * @return a copy of the events, oldest first
+   */
+  synchronized List<DisruptionEvent> getEvents(long startUserJourneyTime, long windowSeconds) {
+    for (DisruptionEvent event : events) {
+      event.alignTo(startUserJourneyTime, windowSeconds);
+    }
+    return new ArrayList<>(events);
+  }
+}
@@ -0,0 +1,118 @@
+package bio.terra.testrunner.runner;
+
+import bio.terra.testrunner.runner.config.DisruptiveScriptSpecification;
+import bio.terra.testrunner.runner.config.TestUserSpecification;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calls the disrupt methods of the disruptive scripts of a test run, each on the schedule in its
+ * specification. Each script has its own thread, so different scripts disrupt concurrently, but the
+ * calls of a single script never overlap: if a call runs past the start of the next one, the next
+ * one starts as soon as it finishes.
+ */
+class DisruptionScheduler {
+  private static final Logger logger = LoggerFactory.getLogger(DisruptionScheduler.class);
+
+  private final List<DisruptiveScriptSpecification> disruptiveScripts;
+  private final List<TestUserSpecification> testUsers;
+  private final DisruptionEventRecorder eventRecorder;
+  private final ScheduledExecutorService executor;
+  private final Random random = new Random();
+  private long startTimeNS;
+
+  /**
+   * @param disruptiveScripts the specifications, with their script instances already configured
+   * @param testUsers the test users to pass to the disrupt methods
+   * @param eventRecorder where the start and end of each disrupt call are recorded
+   */
+  DisruptionScheduler(
+      List<DisruptiveScriptSpecification> disruptiveScripts,
+      List<TestUserSpecification> testUsers,
+      DisruptionEventRecorder eventRecorder) {
+    this.disruptiveScripts = disruptiveScripts;
+    this.testUsers = testUsers;
+    this.eventRecorder = eventRecorder;
+    this.executor = Executors.newScheduledThreadPool(disruptiveScripts.size());
+  }
+
+  /**
+   * Schedule the first disrupt call of each script.
+   *
+   * @param userJourneyDelayMillis time from now until the user journeys start, which the initial
+   *     delays are relative to
+   */
+  void start(long userJourneyDelayMillis) {
+    startTimeNS = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(userJourneyDelayMillis);
+    for (DisruptiveScriptSpecification disruptiveScript : disruptiveScripts) {
+      scheduleCall(disruptiveScript, 1);
+    }
+  }
+
+  /**
+   * Cancel the disrupt calls that have not started yet, and interrupt the running ones.
+   *
+   * @return true if all the running calls finished within the timeout
+   */
+  boolean stop(long timeoutSeconds) throws InterruptedException {
+    executor.shutdownNow();
+    return executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS);
+  }
+
+  private void scheduleCall(DisruptiveScriptSpecification disruptiveScript, int callNumber) {
+    long callOffsetSeconds = disruptiveScript.initialDelaySeconds;
+    if (disruptiveScript.repeatIntervalSeconds != null) {
+      callOffsetSeconds += (callNumber - 1) * disruptiveScript.repeatIntervalSeconds;
+    }
+    long maxJitterMillis = TimeUnit.SECONDS.toMillis(disruptiveScript.jitterSeconds);
+    long jitterMillis = maxJitterMillis == 0 ? 0 : (long) (random.nextDouble() * maxJitterMillis);
+    long delayNS =
+        startTimeNS
+            + TimeUnit.SECONDS.toNanos(callOffsetSeconds)
+            + TimeUnit.MILLISECONDS.toNanos(jitterMillis)
+            - System.nanoTime();
+    try {
+      executor.schedule(
+          () -> callDisrupt(disruptiveScript, callNumber),
+          Math.max(delayNS, 0),
+          TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException rejectedEx) {
+      logger.debug("Disruption Script: Not scheduling more calls, the test run is over");
+    }
+  }
+
+  private void callDisrupt(DisruptiveScriptSpecification disruptiveScript, int callNumber) {
+    int numberOfCalls = disruptiveScript.numberOfCalls();
+    String callDescription =
+        disruptiveScript.name
+            + " (call "
+            + callNumber
+            + (numberOfCalls == 0 ? "" : " of " + numberOfCalls)
+            + ")";
+    eventRecorder.record(DisruptionEvent.Type.DISRUPTION_STARTED, callDescription);
+    try {
+      disruptiveScript.disruptiveScriptClassInstance().disrupt(testUsers);
+      eventRecorder.record(DisruptionEvent.Type.DISRUPTION_FINISHED, callDescription);
+    } catch (InterruptedException intEx) {
+      // the user journeys finished while this call was running
+      eventRecorder.record(
+          DisruptionEvent.Type.DISRUPTION_FINISHED, callDescription + ": interrupted");
+      Thread.currentThread().interrupt();
+      return;
+    } catch (Exception ex) {
+      logger.info("Disruptive thread threw exception: {}", ex.getMessage());
+      eventRecorder.record(
+          DisruptionEvent.Type.DISRUPTION_FAILED, callDescription + ": " + ex.getMessage());
+    }
+
+    if (numberOfCalls == 0 || callNumber < numberOfCalls) {
+      scheduleCall(disruptiveScript, callNumber + 1);
+    }
+  }
+}
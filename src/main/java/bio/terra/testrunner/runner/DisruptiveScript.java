@@ -18,6 +18,7 @@ public abstract class DisruptiveScript {
   protected String billingAccount;
   protected ServerSpecification server;
   protected boolean manipulatesKubernetes = false;
+  private DisruptionEventRecorder eventRecorder = new DisruptionEventRecorder();
 
   /**
    * Setter for the billing account property of this class. This property will be set by the Test
@@ -52,6 +53,30 @@ public abstract class DisruptiveScript {
     return manipulatesKubernetes;
   }
 
+  /**
+   * Setter for the event recorder of this class. The Test Runner sets this to the recorder of the
+   * current test run before starting the disrupt method.
+   *
+   * @param eventRecorder where recordEvent saves the events
+   */
+  void setEventRecorder(DisruptionEventRecorder eventRecorder) {
+    this.eventRecorder = eventRecorder;
+  }
+
+  /**
+   * Record a timestamped event in the disruption timeline of the test run. The Test Runner writes
+   * out the timeline with the user journey time series, and annotates each window with the events
+   * that happened in it. Pod deletions and replica set changes made through {@link
+   * bio.terra.testrunner.common.utils.KubernetesClientUtils} are recorded automatically, so call
+   * this for any other actions or observations (e.g. the service responding again).
+   *
+   * @param type the kind of event
+   * @param description what happened
+   */
+  protected void recordEvent(DisruptionEvent.Type type, String description) {
+    eventRecorder.record(type, description);
+  }
+
   /**
    * Setter for any parameters required by the disrupt script. These parameters will be set by the
    * Test Runner based on the current Test Configuration, and can be used by the Disruptive script
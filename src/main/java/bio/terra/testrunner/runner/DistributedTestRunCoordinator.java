@@ -0,0 +1,244 @@
+package bio.terra.testrunner.runner;
+
+import bio.terra.testrunner.common.commands.RunWorker;
+import bio.terra.testrunner.runner.config.TestConfiguration;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts the worker processes of a distributed test run and merges their results. The workers are
+ * local processes, started with the same classpath as this JVM. Each one reads in the same test
+ * configuration, runs its partition of the user journeys starting at the same wall-clock time, and
+ * writes its results to its own sub-directory of the output directory.
+ */
+public class DistributedTestRunCoordinator {
+  private static final Logger logger = LoggerFactory.getLogger(DistributedTestRunCoordinator.class);
+
+  public static final String workersDirectoryName = "workers";
+  private static final String workerLogFileName = "worker.log";
+
+  private final TestConfiguration config;
+  private final Path workersDirectory;
+  private final List<Process> workerProcesses = new ArrayList<>();
+  private long startEpochMillis;
+
+  /**
+   * @param config the distributed test configuration
+   * @param outputDirectory output directory of the coordinator's test run
+   */
+  public DistributedTestRunCoordinator(TestConfiguration config, Path outputDirectory) {
+    this.config = config;
+    this.workersDirectory = outputDirectory.resolve(workersDirectoryName);
+  }
+
+  /** Get the directory that a worker writes its results and log to. */
+  public Path getWorkerOutputDirectory(int workerIndex) {
+    return workersDirectory.resolve("worker" + workerIndex);
+  }
+
+  /**
+   * Start the worker processes.
+   *
+   * @param startEpochMillis wall-clock time at which all the workers start the user journeys
+   */
+  public void startWorkers(long startEpochMillis) throws IOException {
+    this.startEpochMillis = startEpochMillis;
+    String javaExecutable = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    String classPath = System.getProperty("java.class.path");
+    int numberOfWorkers = config.distributed.numberOfWorkers;
+    for (int ctr = 0; ctr < numberOfWorkers; ctr++) {
+      Path workerOutputDirectory = getWorkerOutputDirectory(ctr);
+      Files.createDirectories(workerOutputDirectory);
+
+      List<String> command = new ArrayList<>();
+      command.add(javaExecutable);
+      command.addAll(config.distributed.workerJvmOptions);
+      command.add("-cp");
+      command.add(classPath);
+      command.add(RunWorker.class.getName());
+      command.add(config.resourceFileName);
+      command.add(workerOutputDirectory.toAbsolutePath().toString());
+      command.add(String.valueOf(ctr));
+      command.add(String.valueOf(numberOfWorkers));
+      command.add(String.valueOf(startEpochMillis));
+
+      File workerLogFile = workerOutputDirectory.resolve(workerLogFileName).toFile();
+      ProcessBuilder processBuilder =
+          new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(workerLogFile);
+      // the workers must test against the same server, which a test suite may have overridden
+      processBuilder
+          .environment()
+          .put(TestConfiguration.serverFileEnvironmentVarName, config.serverSpecificationFile);
+      workerProcesses.add(processBuilder.start());
+      logger.info(
+          "Distributed: Started worker {} of {}, logging to: {}",
+          ctr + 1,
+          numberOfWorkers,
+          workerLogFile.getAbsolutePath());
+    }
+  }
+
+  /**
+   * Wait for all the worker processes to exit, up to a deadline: the time the user journeys start,
+   * plus the expected duration of the user journeys, plus the configured grace period for the
+   * workers to run the test script cleanup methods and write out their results. Any workers still
+   * running at the deadline are killed, so a stuck worker cannot hang the test run.
+   *
+   * @param expectedUserJourneyMillis expected duration of the user journey portion of the run
+   */
+  public void awaitWorkers(long expectedUserJourneyMillis) throws InterruptedException {
+    long deadlineEpochMillis =
+        startEpochMillis
+            + expectedUserJourneyMillis
+            + TimeUnit.SECONDS.toMillis(config.distributed.workerTimeoutGraceSeconds);
+    logger.info(
+        "Distributed: Waiting for the workers to exit, until: {}",
+        Instant.ofEpochMilli(deadlineEpochMillis));
+    for (int ctr = 0; ctr < workerProcesses.size(); ctr++) {
+      Process workerProcess = workerProcesses.get(ctr);
+      long timeLeftMillis = Math.max(deadlineEpochMillis - System.currentTimeMillis(), 0);
+      if (!workerProcess.waitFor(timeLeftMillis, TimeUnit.MILLISECONDS)) {
+        // without a summary from this worker, merging the results fails the test run
+        logger.error(
+            "Distributed: Worker {} did not exit by the deadline, killing process {}",
+            ctr + 1,
+            workerProcess.pid());
+        workerProcess.destroyForcibly();
+        continue;
+      }
+      // a worker also exits with an error if any of its user journeys failed, so this is not fatal
+      logger.info("Distributed: Worker {} exited with code {}", ctr + 1, workerProcess.exitValue());
+    }
+  }
+
+  /** Kill any worker processes that are still running. */
+  public void stopWorkers() {
+    for (Process workerProcess : workerProcesses) {
+      if (workerProcess.isAlive()) {
+        logger.warn("Distributed: Killing worker process {}", workerProcess.pid());
+        workerProcess.destroyForcibly();
+      }
+    }
+  }
+
+  /**
+   * Merge the results of all the workers into the results of the coordinator, one per test script.
+   * The user journey results are streamed from the workers' raw data files, and the step histograms
+   * are merged from the workers' summaries.
+   *
+   * @param testScriptResults the coordinator's results, in test configuration order
+   * @return the reason the first stopped worker gave for stopping early, null if none did
+   */
+  public String mergeResults(List<TestScriptResult> testScriptResults) {
+    int numberOfWorkers = workerProcesses.size();
+    TestRunSummary[] workerSummaries = new TestRunSummary[numberOfWorkers];
+    List<Integer> workersWithoutSummary = new ArrayList<>();
+    for (int ctr = 0; ctr < numberOfWorkers; ctr++) {
+      try {
+        workerSummaries[ctr] = TestRunner.getTestRunSummary(getWorkerOutputDirectory(ctr));
+      } catch (Exception readEx) {
+        logger.error("Distributed: Error reading the summary of worker {}", ctr + 1, readEx);
+        workersWithoutSummary.add(ctr + 1);
+      }
+    }
+
+    for (int tsCtr = 0; tsCtr < testScriptResults.size(); tsCtr++) {
+      mergeTestScriptResults(testScriptResults.get(tsCtr), tsCtr, workerSummaries);
+    }
+
+    // without a summary, the user journeys a worker kicked off but never recorded are not counted
+    if (!workersWithoutSummary.isEmpty()) {
+      throw new RuntimeException(
+          "Distributed: Workers did not write out their results: " + workersWithoutSummary);
+    }
+    for (int ctr = 0; ctr < numberOfWorkers; ctr++) {
+      if (workerSummaries[ctr].stopReason != null) {
+        return "Worker " + (ctr + 1) + ": " + workerSummaries[ctr].stopReason;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Merge the results of all the workers for a single test script. Each worker writes its results
+   * as they finish, so its raw data file is already in (roughly) end time order. The files are
+   * merged on end time, holding only the next result of each worker in memory, so that the time
+   * series windows fill up in order and none of the results are counted as stragglers.
+   */
+  private void mergeTestScriptResults(
+      TestScriptResult testScriptResult, int tsCtr, TestRunSummary[] workerSummaries) {
+    PriorityQueue<WorkerResultCursor> cursors =
+        new PriorityQueue<>(Comparator.comparingLong(WorkerResultCursor::endTimeNS));
+    int[] numMerged = new int[workerSummaries.length];
+    for (int ctr = 0; ctr < workerSummaries.length; ctr++) {
+      File rawDataFile =
+          TestRunner.userJourneyResultsStreamFile(getWorkerOutputDirectory(ctr), tsCtr).toFile();
+      if (!rawDataFile.exists()) {
+        logger.warn("Distributed: Worker {} has no results for test script {}", ctr + 1, tsCtr);
+        continue;
+      }
+      WorkerResultCursor cursor =
+          new WorkerResultCursor(ctr, UserJourneyResultSink.readResults(rawDataFile));
+      if (cursor.advance()) {
+        cursors.add(cursor);
+      }
+    }
+
+    while (!cursors.isEmpty()) {
+      WorkerResultCursor cursor = cursors.poll();
+      testScriptResult.mergeWorkerResult(cursor.current);
+      numMerged[cursor.workerIndex]++;
+      if (cursor.advance()) {
+        cursors.add(cursor);
+      }
+    }
+
+    for (int ctr = 0; ctr < workerSummaries.length; ctr++) {
+      TestRunSummary workerSummary = workerSummaries[ctr];
+      TestScriptResultSummary workerTestScriptSummary =
+          (workerSummary == null || workerSummary.testScriptResultSummaries == null)
+              ? null
+              : workerSummary.testScriptResultSummaries.get(tsCtr);
+      testScriptResult.mergeWorkerSummary(workerTestScriptSummary, numMerged[ctr]);
+    }
+  }
+
+  /** The next result in the raw data file of a single worker. */
+  private static class WorkerResultCursor {
+    final int workerIndex;
+    final Iterator<UserJourneyResult> results;
+    UserJourneyResult current;
+
+    WorkerResultCursor(int workerIndex, Iterator<UserJourneyResult> results) {
+      this.workerIndex = workerIndex;
+      this.results = results;
+    }
+
+    /** Move to the next result, and return false if there are no more. */
+    boolean advance() {
+      current = results.hasNext() ? results.next() : null;
+      return current != null;
+    }
+
+    /**
+     * End time of the current result, relative to the common start time of the workers. The user
+     * journeys that never finished have no end time, and are written last anyway, so they sort
+     * last.
+     */
+    long endTimeNS() {
+      return current.completed ? current.actualStartTimeNS + current.elapsedTimeNS : Long.MAX_VALUE;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package bio.terra.testrunner.runner;
+
+import bio.terra.testrunner.common.BasicStatistics;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Summary statistics for the user journeys of a single test script whose intended start fell in a
+ * single load phase. Comparing the phases shows how the latency changes with the offered load.
+ */
+@SuppressFBWarnings(
+    value = "URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD",
+    justification = "This POJO class is used for easy serialization to JSON using Jackson.")
+public class LoadPhaseResultSummary {
+  public String phaseName;
+  public long startOffsetSeconds; // since the beginning of the dispatch
+  public long durationSeconds;
+
+  public int numRun; // number of user journeys kicked off in this phase that finished
+  public int numExceptionsThrown;
+  public double throughputPerSecond; // numRun / durationSeconds
+
+  public BasicStatistics elapsedTimeStatistics;
+  public BasicStatistics correctedElapsedTimeStatistics;
+
+  public LoadPhaseResultSummary() {} // default constructor so Jackson can deserialize
+
+  LoadPhaseResultSummary(String phaseName, long startOffsetSeconds, long durationSeconds) {
+    this.phaseName = phaseName;
+    this.startOffsetSeconds = startOffsetSeconds;
+    this.durationSeconds = durationSeconds;
+  }
+}
@@ -0,0 +1,26 @@
+package bio.terra.testrunner.runner;
+
+import bio.terra.testrunner.common.BasicStatistics;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Summary statistics for the time it took the server to recover from each pod deletion or replica
+ * set scale-up made while the disruptive scripts ran. The times are in seconds from the deletion or
+ * scale-up. A statistic is null if no disruption reached that stage of recovery.
+ */
+@SuppressFBWarnings(
+    value = "URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD",
+    justification = "This POJO class is used for easy serialization to JSON using Jackson.")
+public class RecoveryTimeSummary {
+  public int numDisruptions; // pod deletions and replica set scale-ups that were tracked
+  public int numRecovered; // disruptions whose replacement pods all became ready
+
+  // until the replacement pods were all scheduled on a node
+  public BasicStatistics secondsToReplacementScheduled;
+  // until the containers of the replacement pods were all ready
+  public BasicStatistics secondsToContainersReady;
+  // until the end of the first successful user journey that started after the disruption
+  public BasicStatistics secondsToFirstSuccessfulUserJourney;
+
+  public RecoveryTimeSummary() {} // default constructor so Jackson can deserialize
+}
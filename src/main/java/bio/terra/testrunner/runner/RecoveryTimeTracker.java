@@ -0,0 +1,249 @@
+package bio.terra.testrunner.runner;
+
+import bio.terra.testrunner.common.BasicStatistics;
+import bio.terra.testrunner.common.utils.KubernetesClientUtils;
+import bio.terra.testrunner.common.utils.KubernetesResourceCache;
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.openapi.models.V1Pod;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+
+/**
+ * Measures how long the server takes to recover from each pod deletion or replica set scale-up: the
+ * time until the replacement pods are scheduled, until their containers are ready, and until the
+ * first successful user journey. The pod stages are timed as the pod informer sees the changes,
+ * instead of by polling. The user journey stage is worked out from the raw results at the end of
+ * the test run, so recording a result stays as cheap as before.
+ *
+ * <p>This class is thread-safe.
+ */
+class RecoveryTimeTracker implements ResourceEventHandler<V1Pod> {
+  private final DisruptionEventRecorder eventRecorder;
+  private final List<Recovery> recoveries = new ArrayList<>();
+
+  // each replacement pod counts towards a single recovery, keyed by pod name
+  private final Map<String, Recovery> claimedPods = new HashMap<>();
+
+  /**
+   * @param resourceCache the pod cache of the test run, this adds itself as a handler
+   * @param eventRecorder where the recoveries are recorded as they happen
+   */
+  RecoveryTimeTracker(
+      KubernetesResourceCache resourceCache, DisruptionEventRecorder eventRecorder) {
+    this.eventRecorder = eventRecorder;
+    resourceCache.addPodEventHandler(this);
+  }
+
+  /**
+   * Start tracking the recovery from a disruption, timed from now. Call this before making the
+   * change, so that a replacement pod that shows up quickly is not missed.
+   *
+   * @param description what was disrupted, e.g. the name of the deleted pod
+   * @param podSelector labels that the replacement pods have
+   * @param podNamesBefore the names of the pods in the namespace before the disruption
+   * @param expectedNewPods the number of replacement pods
+   */
+  synchronized void trackRecovery(
+      String description,
+      Map<String, String> podSelector,
+      Set<String> podNamesBefore,
+      int expectedNewPods) {
+    recoveries.add(
+        new Recovery(
+            description, podSelector, podNamesBefore, expectedNewPods, System.currentTimeMillis()));
+  }
+
+  /**
+   * Stop tracking the most recent recovery with the given description, because the disruption
+   * failed. Any pods it claimed are free to be claimed by the other recoveries.
+   *
+   * @param description what was disrupted, as passed to {@link #trackRecovery}
+   */
+  synchronized void cancelRecovery(String description) {
+    for (int ctr = recoveries.size() - 1; ctr >= 0; ctr--) {
+      Recovery recovery = recoveries.get(ctr);
+      if (recovery.description.equals(description)) {
+        recoveries.remove(ctr);
+        claimedPods.values().removeIf(claimedBy -> claimedBy == recovery);
+        return;
+      }
+    }
+  }
+
+  @Override
+  public void onAdd(V1Pod pod) {
+    podChanged(pod);
+  }
+
+  @Override
+  public void onUpdate(V1Pod oldPod, V1Pod newPod) {
+    podChanged(newPod);
+  }
+
+  @Override
+  public void onDelete(V1Pod pod, boolean deletedFinalStateUnknown) {}
+
+  private synchronized void podChanged(V1Pod pod) {
+    long now = System.currentTimeMillis();
+    String podName = pod.getMetadata().getName();
+    Recovery recovery = claimedPods.get(podName);
+    if (recovery == null) {
+      recovery = claimReplacementPod(pod);
+      if (recovery == null) {
+        return;
+      }
+    }
+    if (recovery.readyTime != null) {
+      return;
+    }
+
+    if (pod.getSpec() != null && pod.getSpec().getNodeName() != null) {
+      recovery.scheduledPods.add(podName);
+    }
+    if (KubernetesClientUtils.isPodReady(pod)) {
+      recovery.readyPods.add(podName);
+    }
+
+    if (recovery.scheduledTime == null
+        && recovery.scheduledPods.size() >= recovery.expectedNewPods) {
+      recovery.scheduledTime = now;
+    }
+    if (recovery.readyPods.size() >= recovery.expectedNewPods) {
+      recovery.readyTime = now;
+      eventRecorder.record(
+          DisruptionEvent.Type.RECOVERY_OBSERVED,
+          recovery.description
+              + ": replacement pods ready after "
+              + (recovery.readyTime - recovery.disruptionTime) / 1000.0
+              + " seconds");
+    }
+  }
+
+  /**
+   * Give a new pod to the oldest recovery that it could be a replacement for, and that is still
+   * waiting for replacement pods. Overlapping disruptions of the same deployment would otherwise
+   * all count the same pod.
+   *
+   * @return the recovery that claimed the pod, null if none did
+   */
+  private Recovery claimReplacementPod(V1Pod pod) {
+    for (Recovery recovery : recoveries) {
+      if (recovery.readyTime == null
+          && recovery.numClaimedPods < recovery.expectedNewPods
+          && recovery.isReplacement(pod)) {
+        recovery.numClaimedPods++;
+        claimedPods.put(pod.getMetadata().getName(), recovery);
+        return recovery;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Calculate the recovery time statistics. Call this after the user journeys finished and their
+   * results were compiled.
+   *
+   * @param testScriptResults the results of the test run, to find the first successful user
+   *     journeys
+   * @param startUserJourneyTime milliseconds since the epoch, that the result offsets are relative
+   *     to
+   * @return the summary, null if no disruptions were tracked
+   */
+  synchronized RecoveryTimeSummary getSummary(
+      List<TestScriptResult> testScriptResults, long startUserJourneyTime) {
+    if (recoveries.isEmpty()) {
+      return null;
+    }
+
+    // a single pass over the raw results, finding the first success after each disruption
+    for (TestScriptResult testScriptResult : testScriptResults) {
+      for (UserJourneyResult result : testScriptResult.getUserJourneyResults()) {
+        if (!result.completed || result.exceptionWasThrown) {
+          continue;
+        }
+        long startTime =
+            startUserJourneyTime + TimeUnit.NANOSECONDS.toMillis(result.actualStartTimeNS);
+        long endTime =
+            startUserJourneyTime
+                + TimeUnit.NANOSECONDS.toMillis(result.actualStartTimeNS + result.elapsedTimeNS);
+        for (Recovery recovery : recoveries) {
+          if (startTime >= recovery.disruptionTime
+              && (recovery.firstSuccessTime == null || endTime < recovery.firstSuccessTime)) {
+            recovery.firstSuccessTime = endTime;
+          }
+        }
+      }
+    }
+
+    RecoveryTimeSummary summary = new RecoveryTimeSummary();
+    DescriptiveStatistics scheduledSeconds = new DescriptiveStatistics();
+    DescriptiveStatistics readySeconds = new DescriptiveStatistics();
+    DescriptiveStatistics firstSuccessSeconds = new DescriptiveStatistics();
+    for (Recovery recovery : recoveries) {
+      summary.numDisruptions++;
+      if (recovery.scheduledTime != null) {
+        scheduledSeconds.addValue((recovery.scheduledTime - recovery.disruptionTime) / 1000.0);
+      }
+      if (recovery.readyTime != null) {
+        summary.numRecovered++;
+        readySeconds.addValue((recovery.readyTime - recovery.disruptionTime) / 1000.0);
+      }
+      if (recovery.firstSuccessTime != null) {
+        firstSuccessSeconds.addValue(
+            (recovery.firstSuccessTime - recovery.disruptionTime) / 1000.0);
+      }
+    }
+    summary.secondsToReplacementScheduled = statisticsOrNull(scheduledSeconds);
+    summary.secondsToContainersReady = statisticsOrNull(readySeconds);
+    summary.secondsToFirstSuccessfulUserJourney = statisticsOrNull(firstSuccessSeconds);
+    return summary;
+  }
+
+  private static BasicStatistics statisticsOrNull(DescriptiveStatistics descriptiveStatistics) {
+    return descriptiveStatistics.getN() == 0
+        ? null
+        : BasicStatistics.calculateStandardStatistics(descriptiveStatistics);
+  }
+
+  /** The recovery from a single disruption. Times are milliseconds since the epoch. */
+  private static class Recovery {
+    final String description;
+    final Map<String, String> podSelector;
+    final Set<String> podNamesBefore;
+    final int expectedNewPods;
+    final long disruptionTime;
+    final Set<String> scheduledPods = new HashSet<>();
+    final Set<String> readyPods = new HashSet<>();
+    int numClaimedPods;
+    Long scheduledTime;
+    Long readyTime;
+    Long firstSuccessTime;
+
+    Recovery(
+        String description,
+        Map<String, String> podSelector,
+        Set<String> podNamesBefore,
+        int expectedNewPods,
+        long disruptionTime) {
+      this.description = description;
+      this.podSelector = podSelector;
+      this.podNamesBefore = podNamesBefore;
+      this.expectedNewPods = expectedNewPods;
+      this.disruptionTime = disruptionTime;
+    }
+
+    /** A replacement pod has all the selector labels, and did not exist before the disruption. */
+    boolean isReplacement(V1Pod pod) {
+      Map<String, String> labels = pod.getMetadata().getLabels();
+      return labels != null
+          && labels.entrySet().containsAll(podSelector.entrySet())
+          && !podNamesBefore.contains(pod.getMetadata().getName());
+    }
+  }
+}
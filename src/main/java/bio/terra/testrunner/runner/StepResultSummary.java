@@ -0,0 +1,24 @@
+package bio.terra.testrunner.runner;
+
+import bio.terra.testrunner.common.BasicStatistics;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/** Summary statistics for a single named step across all the user journeys of a test script. */
+@SuppressFBWarnings(
+    value = "URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD",
+    justification = "This POJO class is used for easy serialization to JSON using Jackson.")
+public class StepResultSummary {
+  public String stepName;
+  public long count; // number of times the step was recorded
+
+  public BasicStatistics elapsedTimeStatistics;
+
+  // compressed, Base64-encoded HDR histogram of the latencies in nanoseconds
+  public String elapsedTimeHistogram;
+
+  public StepResultSummary() {} // default constructor so Jackson can deserialize
+
+  StepResultSummary(String stepName) {
+    this.stepName = stepName;
+  }
+}
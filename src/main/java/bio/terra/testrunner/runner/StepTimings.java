@@ -0,0 +1,96 @@
+package bio.terra.testrunner.runner;
+
+import bio.terra.testrunner.common.BasicStatistics;
+import bio.terra.testrunner.common.utils.HistogramUtils;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies of the named steps inside the user journeys of a single test script (e.g. the
+ * individual API calls). Each step name has its own histogram, shared by all the user journey
+ * threads. Recording into an existing step does not allocate, so it is cheap enough to call around
+ * every API call.
+ */
+public class StepTimings {
+  private final Map<String, StepHistogram> stepHistograms = new ConcurrentHashMap<>();
+
+  /**
+   * Record the elapsed time of a single step. This method is safe to call from multiple threads.
+   *
+   * @param stepName the name of the step
+   * @param elapsedTimeNS the elapsed time of the step in nanoseconds
+   */
+  public void record(String stepName, long elapsedTimeNS) {
+    stepHistograms
+        .computeIfAbsent(stepName, name -> new StepHistogram())
+        .record(Math.max(elapsedTimeNS, 0));
+  }
+
+  /**
+   * Merge in the step latencies summarized by another process, e.g. a worker of a distributed test
+   * run. This method is safe to call from multiple threads.
+   *
+   * @param stepSummaries the summaries to merge, with their encoded histograms
+   */
+  public void merge(List<StepResultSummary> stepSummaries) {
+    for (StepResultSummary stepSummary : stepSummaries) {
+      if (stepSummary.elapsedTimeHistogram == null) {
+        continue;
+      }
+      Histogram histogram = HistogramUtils.decode(stepSummary.elapsedTimeHistogram);
+      // the sum in the summary is in milliseconds, so it is only as exact as a double
+      double sumNS =
+          stepSummary.elapsedTimeStatistics == null
+                  || !Double.isFinite(stepSummary.elapsedTimeStatistics.sum)
+              ? histogram.getMean() * histogram.getTotalCount()
+              : stepSummary.elapsedTimeStatistics.sum * HistogramUtils.nanosecondsPerMillisecond;
+      stepHistograms
+          .computeIfAbsent(stepSummary.stepName, name -> new StepHistogram())
+          .add(histogram, Math.round(sumNS));
+    }
+  }
+
+  /**
+   * Calculate the statistics for each step, converting the latencies to milliseconds.
+   *
+   * @return a summary per step, sorted by step name
+   */
+  public List<StepResultSummary> summarize() {
+    return stepHistograms.entrySet().stream()
+        .sorted(Map.Entry.comparingByKey())
+        .map(
+            entry -> {
+              StepResultSummary stepSummary = new StepResultSummary(entry.getKey());
+              Histogram histogram = entry.getValue().histogram;
+              stepSummary.count = histogram.getTotalCount();
+              stepSummary.elapsedTimeStatistics =
+                  BasicStatistics.calculateStandardStatistics(
+                      histogram,
+                      entry.getValue().sumNS.sum(),
+                      HistogramUtils.nanosecondsPerMillisecond);
+              stepSummary.elapsedTimeHistogram = HistogramUtils.encode(histogram);
+              return stepSummary;
+            })
+        .collect(Collectors.toList());
+  }
+
+  /** The latencies of a single step in nanoseconds, and their exact sum. */
+  private static class StepHistogram {
+    final Histogram histogram = HistogramUtils.newConcurrentHistogram();
+    final LongAdder sumNS = new LongAdder();
+
+    void record(long elapsedTimeNS) {
+      histogram.recordValue(elapsedTimeNS);
+      sumNS.add(elapsedTimeNS);
+    }
+
+    void add(Histogram other, long otherSumNS) {
+      histogram.add(other);
+      sumNS.add(otherSumNS);
+    }
+  }
+}
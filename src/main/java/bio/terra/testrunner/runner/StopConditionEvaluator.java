@@ -0,0 +1,169 @@
+package bio.terra.testrunner.runner;
+
+import bio.terra.testrunner.common.utils.HistogramUtils;
+import bio.terra.testrunner.runner.config.StopConditionSpecification;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Evaluates the stop conditions of a test run against its live progress snapshots. Each stop
+ * condition looks at a sliding window of the most recent snapshots for each test script.
+ *
+ * <p>This class is not thread-safe. It is called from the progress monitor thread only.
+ */
+public class StopConditionEvaluator {
+  private final List<StopConditionSpecification> stopConditions;
+
+  // the most recent snapshots of each test script, keyed by index in the progress snapshot
+  private final Map<Integer, Deque<TestScriptProgress>> snapshotWindows = new HashMap<>();
+  private final Map<Integer, Double> windowSecondsCovered = new HashMap<>();
+
+  // for THROUGHPUT_COLLAPSE: peak windowed throughput per condition and test script, and the
+  // number of user journeys in flight when it was measured
+  private final Map<String, PeakThroughput> peakThroughputs = new HashMap<>();
+
+  public StopConditionEvaluator(List<StopConditionSpecification> stopConditions) {
+    this.stopConditions = new ArrayList<>(stopConditions);
+  }
+
+  /**
+   * Add a progress snapshot to the sliding windows and evaluate the stop conditions.
+   *
+   * @param progress the latest progress snapshot
+   * @return a description of the first stop condition that tripped, or null if none did
+   */
+  public String evaluate(TestRunProgress progress) {
+    for (int tsCtr = 0; tsCtr < progress.testScripts.size(); tsCtr++) {
+      TestScriptProgress snapshot = progress.testScripts.get(tsCtr);
+      Deque<TestScriptProgress> snapshots =
+          snapshotWindows.computeIfAbsent(tsCtr, index -> new ArrayDeque<>());
+      snapshots.addLast(snapshot);
+      windowSecondsCovered.merge(tsCtr, snapshot.intervalSeconds, Double::sum);
+
+      for (int scCtr = 0; scCtr < stopConditions.size(); scCtr++) {
+        StopConditionSpecification stopCondition = stopConditions.get(scCtr);
+        if (progress.secondsSinceStartUserJourneys < stopCondition.gracePeriodSeconds
+            || (stopCondition.testScriptName != null
+                && !stopCondition.testScriptName.equals(snapshot.testScriptName))) {
+          continue;
+        }
+        String tripReason = evaluate(stopCondition, scCtr + ":" + tsCtr, snapshots, snapshot);
+        if (tripReason != null) {
+          return String.format(
+              "Stop condition %s tripped for test script %s: %s",
+              stopCondition.type, snapshot.testScriptDescription, tripReason);
+        }
+      }
+    }
+    trimWindows();
+    return null;
+  }
+
+  /** Evaluate a single stop condition over the snapshots that fall within its window. */
+  private String evaluate(
+      StopConditionSpecification stopCondition,
+      String peakKey,
+      Deque<TestScriptProgress> snapshots,
+      TestScriptProgress latest) {
+    // sum the most recent snapshots that fit in the window, newest first
+    int completions = 0;
+    int errors = 0;
+    double seconds = 0;
+    Histogram latencyHistogram = new Histogram(HistogramUtils.numberOfSignificantValueDigits);
+    Iterator<TestScriptProgress> iterator = snapshots.descendingIterator();
+    while (iterator.hasNext() && seconds < stopCondition.windowSeconds) {
+      TestScriptProgress snapshot = iterator.next();
+      completions += snapshot.intervalCompletions;
+      errors += snapshot.intervalErrors;
+      seconds += snapshot.intervalSeconds;
+      if (snapshot.intervalLatencyHistogram != null) {
+        latencyHistogram.add(snapshot.intervalLatencyHistogram);
+      }
+    }
+    boolean windowIsFull = seconds >= stopCondition.windowSeconds;
+
+    switch (stopCondition.type) {
+      case ERROR_RATE:
+        double errorRatePercent = completions > 0 ? 100.0 * errors / completions : 0;
+        if (completions >= stopCondition.minCompletionsInWindow
+            && completions > 0
+            && errorRatePercent > stopCondition.maxErrorRatePercent) {
+          return String.format(
+              "error rate %.1f%% > %.1f%% over the last %.0fs",
+              errorRatePercent, stopCondition.maxErrorRatePercent, seconds);
+        }
+        return null;
+      case P99_LATENCY:
+        double p99Millis =
+            latencyHistogram.getValueAtPercentile(99) / HistogramUtils.nanosecondsPerMillisecond;
+        if (completions >= stopCondition.minCompletionsInWindow
+            && completions > 0
+            && p99Millis > stopCondition.maxP99Millis) {
+          return String.format(
+              "p99 latency %.1fms > %.1fms over the last %.0fs",
+              p99Millis, stopCondition.maxP99Millis, seconds);
+        }
+        return null;
+      case THROUGHPUT_COLLAPSE:
+        if (!windowIsFull) {
+          return null;
+        }
+        // a drop in throughput is only a collapse if the load is still there. at the end of the
+        // run the throughput drops too, but so does the number of user journeys in flight
+        double throughput = completions / seconds;
+        int inFlight = latest.numQueued + latest.numRunning;
+        PeakThroughput peak = peakThroughputs.computeIfAbsent(peakKey, key -> new PeakThroughput());
+        if (throughput >= peak.perSecond) {
+          peak.perSecond = throughput;
+          peak.inFlight = inFlight;
+          return null;
+        }
+        if (peak.perSecond > 0
+            && inFlight > 0
+            && inFlight >= peak.inFlight
+            && throughput < stopCondition.minFractionOfPeakThroughput * peak.perSecond) {
+          return String.format(
+              "throughput %.2f/s < %.0f%% of the peak %.2f/s over the last %.0fs, with %d user"
+                  + " journeys in flight",
+              throughput,
+              100 * stopCondition.minFractionOfPeakThroughput,
+              peak.perSecond,
+              seconds,
+              inFlight);
+        }
+        return null;
+      default:
+        throw new IllegalArgumentException(
+            "Unsupported stop condition type: " + stopCondition.type);
+    }
+  }
+
+  /** Drop the snapshots that are older than the longest window of any stop condition. */
+  private void trimWindows() {
+    long longestWindowSeconds = 0;
+    for (StopConditionSpecification stopCondition : stopConditions) {
+      longestWindowSeconds = Math.max(longestWindowSeconds, stopCondition.windowSeconds);
+    }
+    for (Map.Entry<Integer, Deque<TestScriptProgress>> entry : snapshotWindows.entrySet()) {
+      Deque<TestScriptProgress> snapshots = entry.getValue();
+      double covered = windowSecondsCovered.get(entry.getKey());
+      while (snapshots.size() > 1
+          && covered - snapshots.peekFirst().intervalSeconds >= longestWindowSeconds) {
+        covered -= snapshots.removeFirst().intervalSeconds;
+      }
+      windowSecondsCovered.put(entry.getKey(), covered);
+    }
+  }
+
+  /** The highest windowed throughput seen so far, and the user journeys in flight at the time. */
+  private static class PeakThroughput {
+    double perSecond;
+    int inFlight;
+  }
+}
@@ -83,7 +83,7 @@ public class TestRunFullOutput {
             r -> {
               String testScriptName = r.getSummary().testScriptName;
               String testScriptDescription = r.getSummary().testScriptDescription;
-              List<UserJourneyResult> userJourneyResults = r.getUserJourneyResults();
+              Iterable<UserJourneyResult> userJourneyResults = r.getUserJourneyResults();
 
               return new HashMap<String, Object>() {
                 {
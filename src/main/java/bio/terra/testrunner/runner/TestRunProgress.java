@@ -0,0 +1,19 @@
+package bio.terra.testrunner.runner;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.List;
+
+/** A live snapshot of a test run in progress, for operators watching a long run. */
+@SuppressFBWarnings(
+    value = "URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD",
+    justification = "This POJO class is used for easy serialization to JSON using Jackson.")
+public class TestRunProgress {
+  public String testRunId;
+  public String testConfigurationName;
+  public long timestamp; // milliseconds since the epoch
+  public double secondsSinceStartUserJourneys;
+  public boolean finished; // true for the last snapshot, taken after the user journeys ended
+  public List<TestScriptProgress> testScripts;
+
+  public TestRunProgress() {} // default constructor so Jackson can deserialize
+}
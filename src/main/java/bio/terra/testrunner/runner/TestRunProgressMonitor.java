@@ -0,0 +1,181 @@
+package bio.terra.testrunner.runner;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes live progress snapshots of a test run while the user journeys are running. Every
+ * interval, it takes a snapshot of each test script, rewrites the progress file in the output
+ * directory and, if a port is specified, serves the latest snapshot over HTTP at /progress. This
+ * lets operators spot a broken run early, instead of waiting for the results at the end. The HTTP
+ * server has no authentication, so it only listens on the loopback interface.
+ */
+public class TestRunProgressMonitor {
+  private static final Logger logger = LoggerFactory.getLogger(TestRunProgressMonitor.class);
+
+  public static final String progressFileName = "PROGRESS_testRun.json";
+  public static final String progressHttpPath = "/progress";
+
+  private final String testRunId;
+  private final String testConfigurationName;
+  private final List<TestScriptResult> testScriptResults;
+  private final long userJourneyStartTimeNS;
+  private final long intervalSeconds;
+  private final Path progressFile;
+  private final Integer httpPort;
+
+  private final ObjectWriter objectWriter = new ObjectMapper().writerWithDefaultPrettyPrinter();
+  private final List<ProgressListener> listeners = new ArrayList<>();
+
+  private ScheduledExecutorService scheduler;
+  private HttpServer httpServer;
+  private long lastSnapshotTimeNS;
+  private volatile byte[] latestSnapshotJson = "{}".getBytes(StandardCharsets.UTF_8);
+
+  /** Called with each snapshot, on the monitor thread, after it is published. */
+  @FunctionalInterface
+  public interface ProgressListener {
+    void onProgress(TestRunProgress progress);
+  }
+
+  /**
+   * @param testRunId id of the test run, from the summary
+   * @param testConfigurationName name of the test configuration
+   * @param testScriptResults the results to take snapshots of, one per test script
+   * @param userJourneyStartTimeNS {@link System#nanoTime()} at the beginning of the user journeys
+   * @param intervalSeconds time between snapshots
+   * @param outputDirectory directory to write the progress file to
+   * @param httpPort (optional) port to serve the latest snapshot on, null to disable
+   */
+  public TestRunProgressMonitor(
+      String testRunId,
+      String testConfigurationName,
+      List<TestScriptResult> testScriptResults,
+      long userJourneyStartTimeNS,
+      long intervalSeconds,
+      Path outputDirectory,
+      Integer httpPort) {
+    this.testRunId = testRunId;
+    this.testConfigurationName = testConfigurationName;
+    this.testScriptResults = new ArrayList<>(testScriptResults);
+    this.userJourneyStartTimeNS = userJourneyStartTimeNS;
+    this.intervalSeconds = intervalSeconds;
+    this.progressFile = outputDirectory.resolve(progressFileName);
+    this.httpPort = httpPort;
+  }
+
+  /** Add a listener for the snapshots. Call this before {@link #start()}. */
+  public void addListener(ProgressListener listener) {
+    listeners.add(listener);
+  }
+
+  /** Start taking snapshots and, if a port is specified, start the HTTP server. */
+  public void start() throws IOException {
+    if (httpPort != null) {
+      httpServer =
+          HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), httpPort), 0);
+      httpServer.createContext(progressHttpPath, this::handleProgressRequest);
+      httpServer.start();
+      logger.info(
+          "Progress: Serving live progress at http://localhost:{}{}", httpPort, progressHttpPath);
+    }
+
+    lastSnapshotTimeNS = userJourneyStartTimeNS;
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "testrunner-progress");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleAtFixedRate(
+        () -> publishSnapshot(false), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    logger.info("Progress: Writing live progress every {}s to: {}", intervalSeconds, progressFile);
+  }
+
+  /** Stop taking snapshots, publish a final one and stop the HTTP server. */
+  public void stop() {
+    if (scheduler == null) {
+      return;
+    }
+    scheduler.shutdownNow();
+    try {
+      if (!scheduler.awaitTermination(intervalSeconds, TimeUnit.SECONDS)) {
+        logger.warn("Progress: Monitor thread failed to terminate");
+      }
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+    }
+    scheduler = null;
+    publishSnapshot(true);
+
+    if (httpServer != null) {
+      httpServer.stop(0);
+      httpServer = null;
+    }
+  }
+
+  /** Take a snapshot of every test script, write it to the progress file and notify listeners. */
+  private synchronized void publishSnapshot(boolean finished) {
+    // catch everything, an exception would silently cancel the scheduled task
+    try {
+      long nowNS = System.nanoTime();
+      double intervalSecondsActual = (nowNS - lastSnapshotTimeNS) / 1e9;
+      lastSnapshotTimeNS = nowNS;
+
+      TestRunProgress progress = new TestRunProgress();
+      progress.testRunId = testRunId;
+      progress.testConfigurationName = testConfigurationName;
+      progress.timestamp = System.currentTimeMillis();
+      progress.secondsSinceStartUserJourneys = (nowNS - userJourneyStartTimeNS) / 1e9;
+      progress.finished = finished;
+      progress.testScripts = new ArrayList<>();
+      for (TestScriptResult testScriptResult : testScriptResults) {
+        progress.testScripts.add(testScriptResult.takeProgressSnapshot(intervalSecondsActual));
+      }
+
+      // write to a temporary file and move it into place, so readers never see a partial file
+      byte[] json = objectWriter.writeValueAsBytes(progress);
+      latestSnapshotJson = json;
+      Path tempFile = progressFile.resolveSibling(progressFileName + ".tmp");
+      Files.write(tempFile, json);
+      Files.move(
+          tempFile,
+          progressFile,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+
+      for (ProgressListener listener : listeners) {
+        listener.onProgress(progress);
+      }
+    } catch (Exception ex) {
+      logger.error("Progress: Error publishing the live progress", ex);
+    }
+  }
+
+  private void handleProgressRequest(HttpExchange exchange) throws IOException {
+    byte[] json = latestSnapshotJson;
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, json.length);
+    try (OutputStream responseBody = exchange.getResponseBody()) {
+      responseBody.write(json);
+    }
+  }
+}
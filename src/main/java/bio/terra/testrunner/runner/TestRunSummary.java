@@ -15,6 +15,16 @@ public class TestRunSummary {
   public long endTime = -1;
   public List<TestScriptResultSummary> testScriptResultSummaries;
 
+  // set if a stop condition ended the user journeys early, in which case the test run failed
+  public String stopReason;
+
+  // time taken to fetch the test users' access tokens before the user journeys, -1 if not done
+  public long tokenPrewarmMillis = -1;
+  public int numTokensPrewarmed;
+
+  // set if the disruptive scripts deleted pods or scaled up replica sets
+  public RecoveryTimeSummary recoveryTimeSummary;
+
   public TestRunSummary() {}
 
   public TestRunSummary(String id) {
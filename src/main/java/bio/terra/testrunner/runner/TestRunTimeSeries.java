@@ -0,0 +1,32 @@
+package bio.terra.testrunner.runner;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.List;
+
+/**
+ * The user journey time series for all the test scripts in a test run. The window offsets are
+ * relative to startUserJourneyTime, so that they can be lined up with other timestamped events
+ * (e.g. disruptions or pod restarts).
+ */
+@SuppressFBWarnings(
+    value = "URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD",
+    justification = "This POJO class is used for easy serialization to JSON using Jackson.")
+public class TestRunTimeSeries {
+  public String testRunId;
+  public long startUserJourneyTime; // milliseconds since the epoch
+  public List<UserJourneyTimeSeries> testScripts;
+  public List<DisruptionEvent> disruptionEvents; // oldest first
+
+  public TestRunTimeSeries() {} // default constructor so Jackson can deserialize
+
+  TestRunTimeSeries(
+      String testRunId,
+      long startUserJourneyTime,
+      List<UserJourneyTimeSeries> testScripts,
+      List<DisruptionEvent> disruptionEvents) {
+    this.testRunId = testRunId;
+    this.startUserJourneyTime = startUserJourneyTime;
+    this.testScripts = testScripts;
+    this.disruptionEvents = disruptionEvents;
+  }
+}
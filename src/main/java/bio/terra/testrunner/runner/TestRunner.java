@@ -3,8 +3,12 @@ package bio.terra.testrunner.runner;
 import static bio.terra.testrunner.common.commands.PrintHelp.ANSI_PURPLE;
 import static bio.terra.testrunner.common.commands.PrintHelp.ANSI_RESET;
 
+import bio.terra.testrunner.common.utils.AuthenticationUtils;
 import bio.terra.testrunner.common.utils.FileUtils;
+import bio.terra.testrunner.common.utils.KubernetesClientContext;
 import bio.terra.testrunner.common.utils.KubernetesClientUtils;
+import bio.terra.testrunner.runner.config.ClosedLoopSpecification;
+import bio.terra.testrunner.runner.config.DisruptiveScriptSpecification;
 import bio.terra.testrunner.runner.config.TestConfiguration;
 import bio.terra.testrunner.runner.config.TestScriptSpecification;
 import bio.terra.testrunner.runner.config.TestSuite;
@@ -15,10 +19,12 @@ import com.fasterxml.jackson.databind.ObjectWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,16 +38,31 @@ public class TestRunner {
   private DeploymentScript deploymentScript;
   private List<VersionScript> versionScripts;
   private List<ThreadPoolExecutor> threadPools;
-  private ThreadPoolExecutor disruptionThreadPool;
-  private List<List<Future<UserJourneyResult>>> userJourneyFutureLists;
+  private DisruptionScheduler disruptionScheduler;
+  private ExecutorService dispatcherThreadPool;
+  private List<Future<?>> dispatcherFutures;
+  private long userJourneyStartTimeNS; // monotonic clock equivalent of summary.startUserJourneyTime
 
   // test run outputs
   private List<VersionScriptResult> versionScriptResults;
   private List<TestScriptResult> testScriptResults;
   private TestRunnerEnvironmentScriptResult gitHubContextResult;
   protected TestRunSummary summary;
+  private Path outputDirectory;
+  private TestRunProgressMonitor progressMonitor;
+  private final DisruptionEventRecorder disruptionEventRecorder = new DisruptionEventRecorder();
+  private RecoveryTimeTracker recoveryTimeTracker;
+
+  // set when a stop condition trips, to stop kicking off user journeys
+  private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+  private volatile long stopRequestedTimeNS;
+
+  // set only when this runner is a worker process of a distributed test run
+  private WorkerPartition workerPartition = WorkerPartition.SINGLE_NODE;
+  private Long workerStartEpochMillis;
 
   private static long secondsToWaitForPoolShutdown = 60;
+  private static final int maxThreadsToPrewarmTokens = 8;
 
   private boolean exceptionThrownInCleanup = false;
 
@@ -49,8 +70,9 @@ public class TestRunner {
     this.config = config;
     this.scripts = new ArrayList<>();
     this.threadPools = new ArrayList<>();
-    this.disruptionThreadPool = null;
-    this.userJourneyFutureLists = new ArrayList<>();
+    this.disruptionScheduler = null;
+    this.dispatcherThreadPool = null;
+    this.dispatcherFutures = new ArrayList<>();
     this.testScriptResults = new ArrayList<>();
     this.summary = new TestRunSummary(UUID.randomUUID().toString());
   }
@@ -65,6 +87,23 @@ public class TestRunner {
       // set the end time for this test run
       summary.endTime = System.currentTimeMillis();
     } catch (Exception originalEx) {
+      // stop recording user journey results, so that the partial results can still be written out
+      if (progressMonitor != null) {
+        progressMonitor.stop();
+      }
+      for (TestScriptResult testScriptResult : testScriptResults) {
+        testScriptResult.finish();
+      }
+
+      // stop disrupting the deployment before tearing it down
+      if (disruptionScheduler != null) {
+        try {
+          disruptionScheduler.stop(secondsToWaitForPoolShutdown);
+        } catch (InterruptedException intEx) {
+          Thread.currentThread().interrupt();
+        }
+      }
+
       // cleanup deployment (i.e. run teardown method)
       try {
         if (!config.server.skipDeployment) {
@@ -93,6 +132,10 @@ public class TestRunner {
       }
 
       throw originalEx;
+    } finally {
+      // the Kubernetes client objects belong to this test run only
+      KubernetesClientUtils.closeContext();
+      KubernetesClientUtils.unbindContext();
     }
   }
 
@@ -130,7 +173,10 @@ public class TestRunner {
     // update any Kubernetes properties specified by the test configuration
     if (!config.server.skipKubernetes) {
       KubernetesClientUtils.buildKubernetesClientObjectWithClientKey(config.server);
-      modifyKubernetesPostDeployment();
+      // in a distributed test run, the coordinator has already done this
+      if (!isWorker()) {
+        modifyKubernetesPostDeployment();
+      }
     } else {
       logger.info("Kubernetes: Skipping Kubernetes configuration post-deployment");
     }
@@ -169,22 +215,25 @@ public class TestRunner {
       gitHubContextResult = new GitHubActionsWorkflowRunContext().getTestRunnerEnvironmentContext();
     }
 
-    // setup the instance of each test script class
-    logger.info(
-        "Test Scripts: Fetching instance of each class, setting billing account and parameters");
-    for (TestScriptSpecification testScriptSpecification : config.testScripts) {
-      TestScript testScriptInstance = testScriptSpecification.scriptClassInstance();
+    // setup the instance of each test script class. in a distributed test run, the workers do this
+    // instead of the coordinator, because they run the user journeys
+    if (runsUserJourneysLocally()) {
+      logger.info(
+          "Test Scripts: Fetching instance of each class, setting billing account and parameters");
+      for (TestScriptSpecification testScriptSpecification : config.testScripts) {
+        TestScript testScriptInstance = testScriptSpecification.scriptClassInstance();
 
-      // set the billing account for the test script to use
-      testScriptInstance.setBillingAccount(config.billingAccount);
+        // set the billing account for the test script to use
+        testScriptInstance.setBillingAccount(config.billingAccount);
 
-      // set the server specification for the test script to run against
-      testScriptInstance.setServer(config.server);
+        // set the server specification for the test script to run against
+        testScriptInstance.setServer(config.server);
 
-      // set any parameters specified by the configuration
-      testScriptInstance.setParametersMap(testScriptSpecification.parametersMap);
+        // set any parameters specified by the configuration
+        testScriptInstance.setParametersMap(testScriptSpecification.parametersMap);
 
-      scripts.add(testScriptInstance);
+        scripts.add(testScriptInstance);
+      }
     }
 
     // call the setup method of each test script
@@ -195,29 +244,129 @@ public class TestRunner {
       throw new RuntimeException("Error calling test script setup methods.", setupExceptionThrown);
     }
 
-    // Disruptive Thread: fetch script specification if config is defined
-    if (config.disruptiveScript != null) {
-      logger.debug("Creating thread pool for disruptive script.");
-      DisruptiveScript disruptiveScriptInstance =
-          config.disruptiveScript.disruptiveScriptClassInstance();
-      disruptiveScriptInstance.setBillingAccount(config.billingAccount);
-      disruptiveScriptInstance.setServer(config.server);
-      disruptiveScriptInstance.setParametersMap(config.disruptiveScript.parametersMap);
+    // fetch the test users' access tokens now, so that the first user journey of each user doesn't
+    // include the time to get one
+    prewarmTestUserTokens();
+
+    // Disruptive Scripts: schedule their disrupt calls if any are defined
+    List<DisruptiveScriptSpecification> disruptiveScripts = config.allDisruptiveScripts();
+    if (!disruptiveScripts.isEmpty()) {
+      logger.debug("Creating scheduler for {} disruptive scripts.", disruptiveScripts.size());
+      for (DisruptiveScriptSpecification disruptiveScript : disruptiveScripts) {
+        DisruptiveScript scriptInstance = disruptiveScript.disruptiveScriptClassInstance();
+        scriptInstance.setBillingAccount(config.billingAccount);
+        scriptInstance.setServer(config.server);
+        scriptInstance.setParametersMap(disruptiveScript.parametersMap);
+        scriptInstance.setEventRecorder(disruptionEventRecorder);
+      }
+      setKubernetesDisruptionEventRecorder(disruptionEventRecorder);
+      if (!config.server.skipKubernetes) {
+        recoveryTimeTracker =
+            new RecoveryTimeTracker(
+                KubernetesClientUtils.getResourceCache(), disruptionEventRecorder);
+        disruptionEventRecorder.setRecoveryTimeTracker(recoveryTimeTracker);
+      }
+
+      // the initial delays are relative to the start of the user journeys, which the workers of a
+      // distributed test run only kick off after their start delay
+      long userJourneyDelayMillis =
+          runsUserJourneysLocally()
+              ? 0
+              : TimeUnit.SECONDS.toMillis(config.distributed.startDelaySeconds);
+      disruptionScheduler =
+          new DisruptionScheduler(disruptiveScripts, config.testUsers, disruptionEventRecorder);
+      disruptionScheduler.start(userJourneyDelayMillis);
+      logger.debug("Successfully scheduled disruptive scripts.");
+    }
+
+    // the user journey results are written to files in the output directory as they complete
+    if (outputDirectory == null) {
+      outputDirectory = Files.createTempDirectory("testrunner_" + summary.id);
+      logger.warn("Output directory not set, writing results to: {}", outputDirectory);
+    }
+
+    if (runsUserJourneysLocally()) {
+      runUserJourneysLocally();
+    } else {
+      runUserJourneysOnWorkers();
+    }
 
-      // create a thread pool for running its disrupt method
-      disruptionThreadPool = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
+    // stop the disruptive scripts
+    if (disruptionScheduler != null) {
+      logger.debug("Tell the disruption scheduler to shutdown");
+      if (!disruptionScheduler.stop(secondsToWaitForPoolShutdown)) {
+        logger.error("Disruption Script: Thread pool for disruption scripts failed to terminate");
+      }
+      setKubernetesDisruptionEventRecorder(null);
+    }
 
-      DisruptiveThread disruptiveThread =
-          new DisruptiveThread(disruptiveScriptInstance, config.testUsers);
-      disruptionThreadPool.execute(disruptiveThread);
-      logger.debug("Successfully submitted disruptive thread.");
-      TimeUnit.SECONDS.sleep(
-          1); // give the disruptive script thread some time to start before kicking off the user
-      // journeys.
+    // compile the results from all thread pools. the results were recorded as each user journey
+    // finished, so this just counts the ones that never finished and calculates the statistics
+    logger.info("Test Scripts: Compiling the results from all thread pools");
+    for (TestScriptResult testScriptResult : testScriptResults) {
+      testScriptResult.finish();
+    }
+
+    // pull out the test script summary information into the summary object
+    summary.testScriptResultSummaries =
+        testScriptResults.stream().map(TestScriptResult::getSummary).collect(Collectors.toList());
+    if (recoveryTimeTracker != null) {
+      summary.recoveryTimeSummary =
+          recoveryTimeTracker.getSummary(testScriptResults, summary.startUserJourneyTime);
+    }
+
+    // append GitHub Context data if exists.
+    summary.setGithubRunId(gitHubContextResult.githubRunId);
+    summary.setGithubRepository(gitHubContextResult.githubRepository);
+    summary.setGithubServerUrl(gitHubContextResult.githubServerUrl);
+
+    // call the cleanup method of each test script
+    logger.info("Test Scripts: Calling the cleanup methods");
+    Throwable cleanupExceptionThrown = callTestScriptCleanups();
+    if (cleanupExceptionThrown != null) {
+      exceptionThrownInCleanup = true;
+      logger.error(
+          "Test Scripts: Error calling test script cleanup methods", cleanupExceptionThrown);
+      throw new RuntimeException(
+          "Error calling test script cleanup methods.", cleanupExceptionThrown);
+    }
+
+    // no need to restore any Kubernetes settings. they are always set again at the beginning of a
+    // test run, which is more important from a reproducibility standpoint. probably more useful to
+    // leave the deployment as is, for debugging after a test run
+    if (!config.server.skipDeployment) {
+      deploymentScript.teardown();
+    } else {
+      logger.info("Deployment: Skipping deployment teardown");
+    }
+  }
+
+  /**
+   * Kick off the user journeys of each test script in this process, and wait until they all either
+   * finish or time out. In a distributed test run, this is what each worker does with its partition
+   * of the user journeys.
+   */
+  private void runUserJourneysLocally() throws Exception {
+    // in a distributed test run, wait for the other workers so that they all start together. a
+    // worker that is late still measures its user journey times from the common start time
+    long lateStartMillis = 0;
+    if (workerStartEpochMillis != null) {
+      long millisToStart = workerStartEpochMillis - System.currentTimeMillis();
+      if (millisToStart > 0) {
+        logger.info("Worker: Waiting {}ms for the synchronized start time", millisToStart);
+        TimeUnit.MILLISECONDS.sleep(millisToStart);
+      } else {
+        lateStartMillis = -millisToStart;
+        logger.warn(
+            "Worker: Setup finished {}ms after the synchronized start time, increase the start"
+                + " delay of the distributed test configuration",
+            lateStartMillis);
+      }
     }
 
     // set the start time for the user journey portion this test run
-    summary.startUserJourneyTime = System.currentTimeMillis();
+    summary.startUserJourneyTime = System.currentTimeMillis() - lateStartMillis;
+    userJourneyStartTimeNS = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(lateStartMillis);
 
     // for each test script
     logger.info(
@@ -226,37 +375,120 @@ public class TestRunner {
       TestScript testScript = scripts.get(tsCtr);
       TestScriptSpecification testScriptSpecification = config.testScripts.get(tsCtr);
 
-      // create a thread pool for running its user journeys
+      // create a thread pool for running its user journeys. in a distributed test run, the workers
+      // split the pool size between them
       ThreadPoolExecutor threadPool =
           (ThreadPoolExecutor)
-              Executors.newFixedThreadPool(testScriptSpecification.userJourneyThreadPoolSize);
+              Executors.newFixedThreadPool(
+                  Math.max(
+                      1,
+                      workerPartition.shareOf(testScriptSpecification.userJourneyThreadPoolSize)));
       threadPools.add(threadPool);
 
-      // kick off the user journey(s), one per thread
-      List<Future<UserJourneyResult>> userJourneyFutures = new ArrayList<>();
-      for (int ujCtr = 0;
-          ujCtr < testScriptSpecification.numberOfUserJourneyThreadsToRun;
-          ujCtr++) {
-        TestUserSpecification testUser =
-            config.testUsers.isEmpty()
-                ? null
-                : config.testUsers.get(ujCtr % config.testUsers.size());
-        // add a description to the user journey threads/results that includes any test script
-        // parameters
-        Future<UserJourneyResult> userJourneyFuture =
-            threadPool.submit(
-                new UserJourneyThread(
-                    testScript,
-                    testScriptSpecification.description,
-                    testUser,
-                    config.maxRetries,
-                    config.timeToWait));
-        userJourneyFutures.add(userJourneyFuture);
-      }
-
-      // TODO: support different patterns of kicking off user journeys. here they're all queued at
-      // once
-      userJourneyFutureLists.add(userJourneyFutures);
+      // each user journey appends its result to a file as soon as it finishes
+      TestScriptResult testScriptResult =
+          new TestScriptResult(
+              testScriptSpecification,
+              userJourneyResultsStreamFile(outputDirectory, tsCtr).toFile(),
+              config.timeSeriesWindowSeconds);
+      testScriptResults.add(testScriptResult);
+      testScript.setStepTimings(testScriptResult.getStepTimings());
+
+      // add a description to the user journey threads/results that includes any test script
+      // parameters
+      UserJourneyThreadBuilder userJourneyThreadBuilder =
+          (ujCtr, intendedStartTimeNS) ->
+              new UserJourneyThread(
+                  testScript,
+                  testScriptSpecification.description,
+                  config.testUsers.isEmpty()
+                      ? null
+                      : config.testUsers.get(ujCtr % config.testUsers.size()),
+                  config.maxRetries,
+                  config.timeToWait,
+                  userJourneyStartTimeNS,
+                  intendedStartTimeNS,
+                  testScriptResult,
+                  stopRequested);
+
+      if (testScriptSpecification.closedLoop != null) {
+        // kick off one virtual user per thread. each one loops over the user journey
+        logger.info(
+            "Test Scripts: Starting {} closed-loop virtual users: {}",
+            workerPartition.shareOf(testScriptSpecification.userJourneyThreadPoolSize),
+            testScriptSpecification.description);
+        for (int vuCtr = 0; vuCtr < testScriptSpecification.userJourneyThreadPoolSize; vuCtr++) {
+          if (!workerPartition.owns(vuCtr)) {
+            continue;
+          }
+          threadPool.execute(
+              new VirtualUserLoop(
+                  testScriptSpecification.closedLoop,
+                  vuCtr,
+                  userJourneyThreadBuilder,
+                  testScriptResult,
+                  stopRequested));
+        }
+        dispatcherFutures.add(null);
+      } else if (testScriptSpecification.arrivalRate == null) {
+        // kick off the user journey(s), one per thread. here they're all queued at once
+        for (int ujCtr = 0;
+            ujCtr < testScriptSpecification.numberOfUserJourneyThreadsToRun;
+            ujCtr++) {
+          if (!workerPartition.owns(ujCtr)) {
+            continue;
+          }
+          testScriptResult.userJourneyKickedOff();
+          threadPool.execute(userJourneyThreadBuilder.build(ujCtr, System.nanoTime()));
+        }
+        dispatcherFutures.add(null);
+      } else {
+        // kick off the user journey(s) at the target arrival rate. the dispatch runs in a separate
+        // thread so that the user journeys for all test scripts are kicked off in parallel
+        if (dispatcherThreadPool == null) {
+          dispatcherThreadPool = Executors.newCachedThreadPool();
+        }
+        logger.info(
+            "Test Scripts: Dispatching user journeys with a {} arrival rate profile: {}",
+            testScriptSpecification.arrivalRate.profile,
+            testScriptSpecification.description);
+        dispatcherFutures.add(
+            dispatcherThreadPool.submit(
+                new UserJourneyDispatcher(
+                    threadPool,
+                    new ArrivalSchedule(testScriptSpecification.arrivalRate),
+                    testScriptSpecification.numberOfUserJourneyThreadsToRun,
+                    userJourneyThreadBuilder,
+                    testScriptResult,
+                    workerPartition,
+                    stopRequested)));
+      }
+    }
+
+    // publish live progress while the user journeys run
+    if (config.progressIntervalSeconds > 0) {
+      progressMonitor =
+          new TestRunProgressMonitor(
+              summary.id,
+              config.name,
+              testScriptResults,
+              userJourneyStartTimeNS,
+              config.progressIntervalSeconds,
+              outputDirectory,
+              config.progressHttpPort);
+      if (!config.stopConditions.isEmpty()) {
+        StopConditionEvaluator stopConditionEvaluator =
+            new StopConditionEvaluator(config.stopConditions);
+        progressMonitor.addListener(
+            progress -> {
+              String stopReason =
+                  progress.finished ? null : stopConditionEvaluator.evaluate(progress);
+              if (stopReason != null) {
+                requestStop(stopReason);
+              }
+            });
+      }
+      progressMonitor.start();
     }
 
     // wait until all threads either finish or time out
@@ -265,13 +497,26 @@ public class TestRunner {
       TestScriptSpecification testScriptSpecification = config.testScripts.get(ctr);
       ThreadPoolExecutor threadPool = threadPools.get(ctr);
 
+      // wait for the dispatcher, if any, to kick off all the user journeys before shutting down
+      Future<?> dispatcherFuture = dispatcherFutures.get(ctr);
+      if (dispatcherFuture != null) {
+        try {
+          dispatcherFuture.get();
+        } catch (CancellationException cancelEx) {
+          logger.info(
+              "Test Scripts: Dispatcher cancelled: {}", testScriptSpecification.description);
+        }
+      }
+
       threadPool.shutdown();
-      long totalTerminationTime =
-          (testScriptSpecification.expectedTimeForEach + config.maxRetries * config.timeToWait)
-              * testScriptSpecification.numberOfUserJourneyThreadsToRun;
+      long timeForEach =
+          testScriptSpecification.expectedTimeForEach + config.maxRetries * config.timeToWait;
+      TimeUnit timeForEachUnit = testScriptSpecification.expectedTimeForEachUnitObj;
       boolean terminatedByItself =
-          threadPool.awaitTermination(
-              totalTerminationTime, testScriptSpecification.expectedTimeForEachUnitObj);
+          awaitUserJourneys(
+              threadPool,
+              userJourneyTerminationNanos(config, testScriptSpecification),
+              timeForEachUnit.toNanos(timeForEach));
 
       // if the threads didn't finish in the expected time, then send them interrupts
       if (!terminatedByItself) {
@@ -286,74 +531,161 @@ public class TestRunner {
 
     // set the end time for the user journey portion this test run
     summary.endUserJourneyTime = System.currentTimeMillis();
+    if (progressMonitor != null) {
+      progressMonitor.stop();
+    }
 
-    // shutdown the disrupt thread pool
-    if (disruptionThreadPool != null) {
-      logger.debug("Tell the disruption thread pool to shutdown");
-      disruptionThreadPool.shutdownNow();
-      if (!disruptionThreadPool.awaitTermination(secondsToWaitForPoolShutdown, TimeUnit.SECONDS)) {
-        logger.error("Disruption Script: Thread pool for disruption script failed to terminate");
-      }
+    // shutdown the dispatcher thread pool. all the dispatchers have finished by now
+    if (dispatcherThreadPool != null) {
+      dispatcherThreadPool.shutdown();
     }
+  }
 
-    // compile the results from all thread pools
-    logger.info("Test Scripts: Compiling the results from all thread pools");
-    for (int ctr = 0; ctr < scripts.size(); ctr++) {
-      List<Future<UserJourneyResult>> userJourneyFutureList = userJourneyFutureLists.get(ctr);
-      TestScriptSpecification testScriptSpecification = config.testScripts.get(ctr);
+  /**
+   * Start the worker processes of a distributed test run, wait for them to finish and merge their
+   * results into the results of this runner. The workers run the test script setup and cleanup
+   * methods themselves.
+   */
+  private void runUserJourneysOnWorkers() throws Exception {
+    for (int tsCtr = 0; tsCtr < config.testScripts.size(); tsCtr++) {
+      testScriptResults.add(
+          new TestScriptResult(
+              config.testScripts.get(tsCtr),
+              userJourneyResultsStreamFile(outputDirectory, tsCtr).toFile(),
+              config.timeSeriesWindowSeconds));
+    }
 
-      List<UserJourneyResult> userJourneyResults = new ArrayList<>();
-      for (Future<UserJourneyResult> userJourneyFuture : userJourneyFutureList) {
-        UserJourneyResult result = null;
-        if (userJourneyFuture.isDone())
-          try {
-            // user journey thread completed and populated its own return object, which may include
-            // an exception
-            result = userJourneyFuture.get();
-            result.completed = true;
-          } catch (ExecutionException execEx) {
-            // user journey thread threw an exception and didn't populate its own return object
-            result = new UserJourneyResult(testScriptSpecification.name, "");
-            result.completed = false;
-            result.saveExceptionThrown(execEx);
+    DistributedTestRunCoordinator coordinator =
+        new DistributedTestRunCoordinator(config, outputDirectory);
+    long startEpochMillis =
+        System.currentTimeMillis()
+            + TimeUnit.SECONDS.toMillis(config.distributed.startDelaySeconds);
+    try {
+      coordinator.startWorkers(startEpochMillis);
+      summary.startUserJourneyTime = startEpochMillis;
+      coordinator.awaitWorkers(expectedUserJourneyMillis(config));
+    } finally {
+      coordinator.stopWorkers();
+    }
+    summary.endUserJourneyTime = System.currentTimeMillis();
+
+    logger.info("Distributed: Merging the results of the workers");
+    summary.stopReason = coordinator.mergeResults(testScriptResults);
+  }
+
+  /**
+   * Calculate how long to wait for the user journeys of a test script to finish, once they have all
+   * been kicked off.
+   *
+   * @return the timeout in nanoseconds
+   */
+  private static long userJourneyTerminationNanos(
+      TestConfiguration config, TestScriptSpecification testScriptSpecification) {
+    long timeForEach =
+        testScriptSpecification.expectedTimeForEach + config.maxRetries * config.timeToWait;
+    long totalTerminationTime =
+        timeForEach * testScriptSpecification.numberOfUserJourneyThreadsToRun;
+    TimeUnit timeUnit = testScriptSpecification.expectedTimeForEachUnitObj;
+    ClosedLoopSpecification closedLoop = testScriptSpecification.closedLoop;
+    if (closedLoop != null) {
+      // the loop checks the duration before starting each iteration, so allow time for the
+      // last one to finish. otherwise, allow time for every iteration and think time
+      totalTerminationTime =
+          closedLoop.durationSeconds != null
+              ? timeUnit.convert(closedLoop.durationSeconds, TimeUnit.SECONDS) + timeForEach
+              : closedLoop.iterationsPerUser
+                  * (timeForEach
+                      + timeUnit.convert(
+                          closedLoop.thinkTime.upperBoundMillis(), TimeUnit.MILLISECONDS));
+    }
+    return timeUnit.toNanos(totalTerminationTime);
+  }
+
+  /**
+   * Calculate the longest that the user journey portion of a test run should take: the time to kick
+   * off the user journeys at the target arrival rate, if any, plus the time to wait for them to
+   * finish, for the slowest test script. A distributed test run uses this to decide when a worker
+   * process is stuck.
+   *
+   * @return the expected duration in milliseconds
+   */
+  static long expectedUserJourneyMillis(TestConfiguration config) {
+    long maxNanos = 0;
+    for (TestScriptSpecification testScriptSpecification : config.testScripts) {
+      long dispatchNanos = 0;
+      if (testScriptSpecification.closedLoop == null
+          && testScriptSpecification.arrivalRate != null) {
+        // replay the schedule to find the last arrival. it ends early if the profile runs out
+        ArrivalSchedule arrivalSchedule = new ArrivalSchedule(testScriptSpecification.arrivalRate);
+        for (int ujCtr = 0;
+            ujCtr < testScriptSpecification.numberOfUserJourneyThreadsToRun;
+            ujCtr++) {
+          long arrivalOffsetNS = arrivalSchedule.nextArrivalOffsetNS();
+          if (arrivalOffsetNS < 0) {
+            break;
           }
-        else {
-          // user journey either was never started or got cancelled before it finished
-          result = new UserJourneyResult(testScriptSpecification.name, "");
-          result.completed = false;
+          dispatchNanos = arrivalOffsetNS;
         }
-        userJourneyResults.add(result);
       }
-      testScriptResults.add(new TestScriptResult(testScriptSpecification, userJourneyResults));
+      maxNanos =
+          Math.max(
+              maxNanos,
+              dispatchNanos + userJourneyTerminationNanos(config, testScriptSpecification));
     }
+    return TimeUnit.NANOSECONDS.toMillis(maxNanos);
+  }
 
-    // pull out the test script summary information into the summary object
-    summary.testScriptResultSummaries =
-        testScriptResults.stream().map(TestScriptResult::getSummary).collect(Collectors.toList());
+  /** True unless this runner is the coordinator of a distributed test run. */
+  private boolean runsUserJourneysLocally() {
+    return config.distributed == null || isWorker();
+  }
 
-    // append GitHub Context data if exists.
-    summary.setGithubRunId(gitHubContextResult.githubRunId);
-    summary.setGithubRepository(gitHubContextResult.githubRepository);
-    summary.setGithubServerUrl(gitHubContextResult.githubServerUrl);
+  private boolean isWorker() {
+    return workerStartEpochMillis != null;
+  }
 
-    // call the cleanup method of each test script
-    logger.info("Test Scripts: Calling the cleanup methods");
-    Throwable cleanupExceptionThrown = callTestScriptCleanups();
-    if (cleanupExceptionThrown != null) {
-      exceptionThrownInCleanup = true;
-      logger.error(
-          "Test Scripts: Error calling test script cleanup methods", cleanupExceptionThrown);
-      throw new RuntimeException(
-          "Error calling test script cleanup methods.", cleanupExceptionThrown);
+  /**
+   * Wait for the user journeys in a thread pool to finish, up to the given timeout. If a stop is
+   * requested while waiting, only wait up to the time for a single user journey after the stop, so
+   * that the running user journeys can finish but the test run ends promptly.
+   *
+   * @return true if the thread pool terminated, false if the timeout elapsed first
+   */
+  private boolean awaitUserJourneys(
+      ThreadPoolExecutor threadPool, long timeoutNS, long timeForEachNS)
+      throws InterruptedException {
+    long deadlineNS = System.nanoTime() + timeoutNS;
+    while (!threadPool.awaitTermination(1, TimeUnit.SECONDS)) {
+      if (stopRequested.get() && stopRequestedTimeNS + timeForEachNS - deadlineNS < 0) {
+        deadlineNS = stopRequestedTimeNS + timeForEachNS;
+      }
+      if (System.nanoTime() - deadlineNS >= 0) {
+        return false;
+      }
     }
+    return true;
+  }
 
-    // no need to restore any Kubernetes settings. they are always set again at the beginning of a
-    // test run, which is more important from a reproducibility standpoint. probably more useful to
-    // leave the deployment as is, for debugging after a test run
-    if (!config.server.skipDeployment) {
-      deploymentScript.teardown();
-    } else {
-      logger.info("Deployment: Skipping deployment teardown");
+  /**
+   * Stop kicking off user journeys, because a stop condition tripped. The running user journeys are
+   * allowed to finish, and the test run is marked as failed.
+   *
+   * @param stopReason description of the stop condition that tripped
+   */
+  private synchronized void requestStop(String stopReason) {
+    if (stopRequested.get()) {
+      return;
+    }
+    stopRequestedTimeNS = System.nanoTime();
+    stopRequested.set(true);
+    summary.stopReason = stopReason;
+    logger.error("Test Scripts: Stopping the test run early. {}", stopReason);
+
+    // interrupt the dispatchers waiting for the next arrival
+    for (Future<?> dispatcherFuture : dispatcherFutures) {
+      if (dispatcherFuture != null) {
+        dispatcherFuture.cancel(true);
+      }
     }
   }
 
@@ -398,36 +730,206 @@ public class TestRunner {
     return exceptionThrown;
   }
 
-  private static class UserJourneyThread implements Callable<UserJourneyResult> {
+  private static class UserJourneyThread implements Runnable {
     TestScript testScript;
     String userJourneyDescription;
     TestUserSpecification testUser;
     int maxRetries;
     long timeToWait;
+    long userJourneyStartTimeNS;
+    long intendedStartTimeNS;
+    TestScriptResult testScriptResult;
+    AtomicBoolean stopRequested;
+    String phase; // load phase of the intended start, if any
 
     public UserJourneyThread(
         TestScript testScript,
         String userJourneyDescription,
         TestUserSpecification testUser,
         int maxRetries,
-        long timeToWait) {
+        long timeToWait,
+        long userJourneyStartTimeNS,
+        long intendedStartTimeNS,
+        TestScriptResult testScriptResult,
+        AtomicBoolean stopRequested) {
       this.testScript = testScript;
       this.userJourneyDescription = userJourneyDescription;
       this.testUser = testUser;
       this.maxRetries = maxRetries;
       this.timeToWait = timeToWait;
+      this.userJourneyStartTimeNS = userJourneyStartTimeNS;
+      this.intendedStartTimeNS = intendedStartTimeNS;
+      this.testScriptResult = testScriptResult;
+      this.stopRequested = stopRequested;
     }
 
-    public UserJourneyResult call() {
+    public void run() {
+      // if the test run was stopped while this user journey was queued, don't start it. it is
+      // recorded as not completed
+      if (stopRequested.get()) {
+        return;
+      }
+      testScriptResult.userJourneyStarted();
       UserJourneyResult result =
           new UserJourneyResult(userJourneyDescription, Thread.currentThread().getName());
       RetryLogic retryLogic = new RetryLogic(maxRetries, timeToWait);
 
       long startTime = System.nanoTime();
       tryDoUserJourney(testScript, testUser, result, retryLogic);
-      result.elapsedTimeNS = System.nanoTime() - startTime;
+      long endTime = System.nanoTime();
+
+      result.elapsedTimeNS = endTime - startTime;
+      result.intendedStartTimeNS = intendedStartTimeNS - userJourneyStartTimeNS;
+      result.actualStartTimeNS = startTime - userJourneyStartTimeNS;
+      result.correctedElapsedTimeNS = endTime - intendedStartTimeNS;
+      result.phase = phase;
+
+      // user journey thread completed and populated its own result, which may include an exception
+      result.completed = true;
+      testScriptResult.record(result);
+    }
+  }
+
+  /**
+   * Builds the callable for a single user journey. The intended start time is a {@link
+   * System#nanoTime()} value: the time the user journey is queued or scheduled to start.
+   */
+  @FunctionalInterface
+  private interface UserJourneyThreadBuilder {
+    UserJourneyThread build(int userJourneyIndex, long intendedStartTimeNS);
+  }
+
+  /**
+   * Kicks off user journeys into a thread pool at the intended start times generated by an
+   * open-model arrival schedule. The dispatch does not wait for earlier user journeys to finish, so
+   * a slow server does not lower the offered load. Instead, the user journeys queue up in the
+   * thread pool.
+   */
+  private static class UserJourneyDispatcher implements Runnable {
+    ThreadPoolExecutor threadPool;
+    ArrivalSchedule arrivalSchedule;
+    int numberOfUserJourneysToRun;
+    UserJourneyThreadBuilder userJourneyThreadBuilder;
+    TestScriptResult testScriptResult;
+    WorkerPartition workerPartition;
+    AtomicBoolean stopRequested;
+
+    public UserJourneyDispatcher(
+        ThreadPoolExecutor threadPool,
+        ArrivalSchedule arrivalSchedule,
+        int numberOfUserJourneysToRun,
+        UserJourneyThreadBuilder userJourneyThreadBuilder,
+        TestScriptResult testScriptResult,
+        WorkerPartition workerPartition,
+        AtomicBoolean stopRequested) {
+      this.threadPool = threadPool;
+      this.arrivalSchedule = arrivalSchedule;
+      this.numberOfUserJourneysToRun = numberOfUserJourneysToRun;
+      this.userJourneyThreadBuilder = userJourneyThreadBuilder;
+      this.testScriptResult = testScriptResult;
+      this.workerPartition = workerPartition;
+      this.stopRequested = stopRequested;
+    }
+
+    public void run() {
+      long dispatchStartTimeNS = System.nanoTime();
+      for (int ujCtr = 0; ujCtr < numberOfUserJourneysToRun; ujCtr++) {
+        long arrivalOffsetNS = arrivalSchedule.nextArrivalOffsetNS();
+        if (arrivalOffsetNS < 0) {
+          logger.info("Test Scripts: Arrival rate profile ended after {} user journeys", ujCtr);
+          return;
+        }
+        // in a distributed test run, the other workers kick off the other arrivals
+        if (!workerPartition.owns(ujCtr)) {
+          continue;
+        }
+
+        // if the dispatch is behind schedule, kick off the user journey immediately. its latency is
+        // still measured from the intended start time
+        long intendedStartTimeNS = dispatchStartTimeNS + arrivalOffsetNS;
+        long timeToWaitNS = intendedStartTimeNS - System.nanoTime();
+        if (timeToWaitNS > 0) {
+          try {
+            TimeUnit.NANOSECONDS.sleep(timeToWaitNS);
+          } catch (InterruptedException intEx) {
+            logger.info("Test Scripts: Dispatcher interrupted after {} user journeys", ujCtr);
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+        if (stopRequested.get()) {
+          logger.info("Test Scripts: Dispatcher stopped after {} user journeys", ujCtr);
+          return;
+        }
+        UserJourneyThread userJourneyThread =
+            userJourneyThreadBuilder.build(ujCtr, intendedStartTimeNS);
+        userJourneyThread.phase = arrivalSchedule.phaseAt(arrivalOffsetNS);
+        testScriptResult.userJourneyKickedOff();
+        threadPool.execute(userJourneyThread);
+      }
+    }
+  }
+
+  /**
+   * A closed-loop virtual user: runs the user journey over and over in the same thread, pausing for
+   * a think time between iterations, until the duration or the number of iterations is reached, or
+   * the thread is interrupted. Each iteration is recorded as a separate user journey.
+   */
+  private static class VirtualUserLoop implements Runnable {
+    ClosedLoopSpecification closedLoop;
+    int virtualUserIndex;
+    UserJourneyThreadBuilder userJourneyThreadBuilder;
+    TestScriptResult testScriptResult;
+    AtomicBoolean stopRequested;
+
+    public VirtualUserLoop(
+        ClosedLoopSpecification closedLoop,
+        int virtualUserIndex,
+        UserJourneyThreadBuilder userJourneyThreadBuilder,
+        TestScriptResult testScriptResult,
+        AtomicBoolean stopRequested) {
+      this.closedLoop = closedLoop;
+      this.virtualUserIndex = virtualUserIndex;
+      this.userJourneyThreadBuilder = userJourneyThreadBuilder;
+      this.testScriptResult = testScriptResult;
+      this.stopRequested = stopRequested;
+    }
+
+    public void run() {
+      ThinkTimeGenerator thinkTimeGenerator =
+          new ThinkTimeGenerator(closedLoop.thinkTime, virtualUserIndex);
+      long deadlineNS =
+          closedLoop.durationSeconds == null
+              ? Long.MAX_VALUE
+              : System.nanoTime() + TimeUnit.SECONDS.toNanos(closedLoop.durationSeconds);
+      int iteration = 0;
+      while (closedLoop.iterationsPerUser == null || iteration < closedLoop.iterationsPerUser) {
+        // the next iteration is intended to start right away, or after the think time. in a
+        // closed loop the corrected latency is the same as the service time
+        long intendedStartTimeNS = System.nanoTime();
+        if (iteration > 0) {
+          long thinkTimeMillis = thinkTimeGenerator.nextThinkTimeMillis();
+          try {
+            TimeUnit.MILLISECONDS.sleep(thinkTimeMillis);
+          } catch (InterruptedException intEx) {
+            Thread.currentThread().interrupt();
+            break;
+          }
+          intendedStartTimeNS += TimeUnit.MILLISECONDS.toNanos(thinkTimeMillis);
+        }
+        if (System.nanoTime() - deadlineNS >= 0
+            || Thread.currentThread().isInterrupted()
+            || stopRequested.get()) {
+          break;
+        }
 
-      return result;
+        // the virtual user index picks the test user, so each virtual user keeps the same one
+        testScriptResult.userJourneyKickedOff();
+        userJourneyThreadBuilder.build(virtualUserIndex, intendedStartTimeNS).run();
+        iteration++;
+      }
+      logger.debug(
+          "Test Scripts: Virtual user {} stopped after {} iterations", virtualUserIndex, iteration);
     }
   }
 
@@ -461,23 +963,70 @@ public class TestRunner {
     }
   }
 
-  private static class DisruptiveThread implements Runnable {
-    DisruptiveScript disruptiveScript;
-    List<TestUserSpecification> testUsers;
+  /**
+   * Record the pods deleted and replica sets scaled through the Kubernetes utility methods in the
+   * disruption timeline of this test run.
+   *
+   * @param eventRecorder the recorder to use, null to stop recording
+   */
+  private void setKubernetesDisruptionEventRecorder(DisruptionEventRecorder eventRecorder) {
+    KubernetesClientContext kubernetesContext = KubernetesClientUtils.getContext();
+    if (!config.server.skipKubernetes && kubernetesContext != null) {
+      kubernetesContext.setDisruptionEventRecorder(eventRecorder);
+    }
+  }
 
-    public DisruptiveThread(
-        DisruptiveScript disruptiveScript, List<TestUserSpecification> testUsers) {
-      this.disruptiveScript = disruptiveScript;
-      this.testUsers = testUsers;
+  /**
+   * Fetch and cache an access token for each test user, with each set of scopes that the test
+   * scripts use. Failures are only logged, because the user journeys fetch the tokens anyway.
+   */
+  private void prewarmTestUserTokens() throws InterruptedException {
+    Set<List<String>> scopeSets = new LinkedHashSet<>();
+    for (TestScript script : scripts) {
+      if (script.testUserScopes() != null && !script.testUserScopes().isEmpty()) {
+        scopeSets.add(List.copyOf(script.testUserScopes()));
+      }
+    }
+    if (config.testUsers.isEmpty() || scopeSets.isEmpty()) {
+      return;
     }
 
-    public void run() {
-      try {
-        disruptiveScript.disrupt(testUsers);
-      } catch (Exception ex) {
-        logger.info("Disruptive thread threw exception: {}", ex.getMessage());
+    List<Callable<Void>> fetchTokenTasks = new ArrayList<>();
+    for (TestUserSpecification testUser : config.testUsers) {
+      for (List<String> scopes : scopeSets) {
+        fetchTokenTasks.add(
+            () -> {
+              AuthenticationUtils.getAccessToken(
+                  AuthenticationUtils.getDelegatedUserCredential(testUser, scopes));
+              return null;
+            });
       }
     }
+    logger.info(
+        "Test Users: Fetching {} access tokens for {} test users",
+        fetchTokenTasks.size(),
+        config.testUsers.size());
+
+    long startTimeNS = System.nanoTime();
+    int numFetched = 0;
+    ExecutorService threadPool =
+        Executors.newFixedThreadPool(Math.min(maxThreadsToPrewarmTokens, fetchTokenTasks.size()));
+    try {
+      for (Future<Void> fetchTokenFuture : threadPool.invokeAll(fetchTokenTasks)) {
+        try {
+          fetchTokenFuture.get();
+          numFetched++;
+        } catch (ExecutionException execEx) {
+          logger.warn("Test Users: Error fetching access token", execEx.getCause());
+        }
+      }
+    } finally {
+      threadPool.shutdownNow();
+    }
+    summary.tokenPrewarmMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeNS);
+    summary.numTokensPrewarmed = numFetched;
+    logger.info(
+        "Test Users: Fetched {} access tokens in {} ms", numFetched, summary.tokenPrewarmMillis);
   }
 
   private void modifyKubernetesPostDeployment() throws Exception {
@@ -507,22 +1056,33 @@ public class TestRunner {
 
   private static final String renderedConfigFileName = "RENDERED_testConfiguration.json";
   private static final String userJourneyResultsFileName = "RAWDATA_userJourneyResults.json";
+  private static final String userJourneyResultsStreamFilePrefix = "RAWDATA_userJourneyResults_";
   private static final String runSummaryFileName = "SUMMARY_testRun.json";
+  private static final String timeSeriesFileName = "TIMESERIES_userJourneys.json";
   private static final String fullOutputFileName = "FULL_testRunOutput.json";
   private static final String envVersionFileName = "ENV_versionResult.json";
 
-  /** Helper method to write out the results to files at the end of a test configuration run. */
-  protected void writeOutResults(String outputParentDirName) throws IOException {
-    // use Jackson to map the object to a JSON-formatted text block
-    ObjectMapper objectMapper = new ObjectMapper();
-    ObjectWriter objectWriter = objectMapper.writerWithDefaultPrettyPrinter();
+  /**
+   * Get the file that the user journey results of a test script are appended to as they complete.
+   *
+   * @param outputDirectory the output directory of the test run
+   * @param testScriptIndex index of the test script in the test configuration
+   */
+  static Path userJourneyResultsStreamFile(Path outputDirectory, int testScriptIndex) {
+    return outputDirectory.resolve(userJourneyResultsStreamFilePrefix + testScriptIndex + ".jsonl");
+  }
 
-    // print the summary results to info
-    logger.info(objectWriter.writeValueAsString(summary));
+  /**
+   * Set the directory to write the results of this test configuration run to, creating it if it
+   * doesn't already exist. This should be called before executing the test configuration, because
+   * the user journey results are written to files in this directory as they complete.
+   */
+  protected void setOutputDirectory(String outputDirName) {
+    this.outputDirectory = createOutputDirectory(outputDirName);
+  }
 
-    // create the output directory if it doesn't already exist
-    Path outputDirectory =
-        Paths.get(outputParentDirName); // .resolve(config.name + "_" + summary.id);
+  private static Path createOutputDirectory(String outputDirName) {
+    Path outputDirectory = Paths.get(outputDirName);
     File outputDirectoryFile = outputDirectory.toFile();
     if (outputDirectoryFile.exists() && !outputDirectoryFile.isDirectory()) {
       throw new IllegalArgumentException(
@@ -533,6 +1093,21 @@ public class TestRunner {
         "outputDirectoryCreated {}: {}",
         outputDirectoryFile.getAbsolutePath(),
         outputDirectoryCreated);
+    return outputDirectory;
+  }
+
+  /** Helper method to write out the results to files at the end of a test configuration run. */
+  protected void writeOutResults(String outputParentDirName) throws IOException {
+    // use Jackson to map the object to a JSON-formatted text block
+    ObjectMapper objectMapper = new ObjectMapper();
+    ObjectWriter objectWriter = objectMapper.writerWithDefaultPrettyPrinter();
+
+    // print the summary results to info
+    logger.info(objectWriter.writeValueAsString(summary));
+
+    // create the output directory if it doesn't already exist
+    Path outputDirectory = createOutputDirectory(outputParentDirName);
+    File outputDirectoryFile = outputDirectory.toFile();
     logger.info("Test run results written to directory: {}", outputDirectoryFile.getAbsolutePath());
 
     // create the output files if they don't already exist
@@ -540,6 +1115,7 @@ public class TestRunner {
     File userJourneyResultsFile =
         FileUtils.createNewFile(outputDirectory.resolve(userJourneyResultsFileName).toFile());
     File runSummaryFile = outputDirectory.resolve(runSummaryFileName).toFile();
+    File timeSeriesFile = outputDirectory.resolve(timeSeriesFileName).toFile();
     File terraVersionFile = outputDirectory.resolve(envVersionFileName).toFile();
     File runFullOutputFile = outputDirectory.resolve(fullOutputFileName).toFile();
 
@@ -547,7 +1123,8 @@ public class TestRunner {
     objectWriter.writeValue(renderedConfigFile, config);
     logger.info("Rendered test configuration written to file: {}", renderedConfigFile.getName());
 
-    // write the full set of user journey results to a file
+    // write the full set of user journey results to a file. the results are streamed from the
+    // files they were appended to during the run, one at a time
     objectWriter.writeValue(userJourneyResultsFile, testScriptResults);
     logger.info("All user journey results written to file: {}", userJourneyResultsFile.getName());
 
@@ -555,6 +1132,24 @@ public class TestRunner {
     objectWriter.writeValue(runSummaryFile, summary);
     logger.info("Test run summary written to file: {}", runSummaryFile.getName());
 
+    // write the throughput and latency time series to a file
+    // annotate each window with the disruption events that happened in it
+    List<DisruptionEvent> disruptionEvents =
+        disruptionEventRecorder.getEvents(
+            summary.startUserJourneyTime, config.timeSeriesWindowSeconds);
+    List<UserJourneyTimeSeries> userJourneyTimeSeries =
+        testScriptResults.stream()
+            .map(TestScriptResult::getTimeSeries)
+            .collect(Collectors.toList());
+    for (UserJourneyTimeSeries testScriptTimeSeries : userJourneyTimeSeries) {
+      testScriptTimeSeries.annotate(disruptionEvents);
+    }
+    TestRunTimeSeries timeSeries =
+        new TestRunTimeSeries(
+            summary.id, summary.startUserJourneyTime, userJourneyTimeSeries, disruptionEvents);
+    objectWriter.writeValue(timeSeriesFile, timeSeries);
+    logger.info("User journey time series written to file: {}", timeSeriesFile.getName());
+
     // write full output to a single file for easier automated processing
     TestRunFullOutput runFullOutput =
         new TestRunFullOutput(config, testScriptResults, summary, versionScriptResults);
@@ -674,56 +1269,263 @@ public class TestRunner {
     }
     testSuite.validate();
 
+    // keep the suite order in the results, even if the test configurations finish out of order
+    Map<String, Boolean> testConfigNameToFailed = new LinkedHashMap<>();
     boolean isFailure = false;
-    Map<String, Boolean> testConfigNameToFailed = new HashMap<>();
-    for (int ctr = 0; ctr < testSuite.testConfigurations.size(); ctr++) {
-      TestConfiguration testConfiguration = testSuite.testConfigurations.get(ctr);
+    int maxConcurrent =
+        Math.min(testSuite.maxConcurrentTestConfigurations, testSuite.testConfigurations.size());
+    if (maxConcurrent <= 1) {
+      for (int ctr = 0; ctr < testSuite.testConfigurations.size(); ctr++) {
+        TestConfiguration testConfiguration = testSuite.testConfigurations.get(ctr);
+        boolean testConfigFailed =
+            runTestConfiguration(testSuite, testConfiguration, ctr, isSuite, outputParentDirName);
+        testConfigNameToFailed.put(testConfiguration.name, testConfigFailed);
+        isFailure = isFailure || testConfigFailed;
+
+        TimeUnit.SECONDS.sleep(5);
+      }
+    } else {
+      isFailure =
+          runTestConfigurationsInParallel(
+              testSuite, maxConcurrent, outputParentDirName, testConfigNameToFailed);
+    }
+    printSuiteResults(testConfigNameToFailed);
 
-      logger.info(
-          "==== EXECUTING TEST CONFIGURATION ({}) {} ====", ctr + 1, testConfiguration.name);
-      logger.info(testConfiguration.display());
+    return isFailure;
+  }
 
-      // get an instance of a runner and tell it to execute the configuration
-      TestRunner runner = new TestRunner(testConfiguration);
-      runner.summary.setTestSuiteName(testSuite.name);
-      boolean testConfigFailed = false;
-      try {
-        runner.executeTestConfiguration();
-
-        // even if the test configuration didn't throw an exception, it still may have failed due to
-        // a timeout
-        for (TestScriptResultSummary testScriptResultSummary :
-            runner.summary.testScriptResultSummaries) {
-          if (testScriptResultSummary.isFailure) {
-            testConfigFailed = true;
-            break;
+  /**
+   * Run the test configurations of a suite in parallel, up to the given number at a time. Each test
+   * configuration gets its own runner, output directory and Kubernetes client objects. Test
+   * configurations that deploy the server or manipulate Kubernetes share the same namespace, so the
+   * ones that target the same namespace still run one at a time. They wait in a queue per
+   * namespace, rather than in a pool thread, so they don't hold up the other test configurations.
+   *
+   * @param testConfigNameToFailed map to fill in, in suite order, with whether each config failed
+   * @return true if any of the test configurations failed
+   */
+  private static boolean runTestConfigurationsInParallel(
+      TestSuite testSuite,
+      int maxConcurrent,
+      String outputParentDirName,
+      Map<String, Boolean> testConfigNameToFailed)
+      throws InterruptedException {
+    logger.info(
+        "Running up to {} test configurations in parallel ({} total)",
+        maxConcurrent,
+        testSuite.testConfigurations.size());
+
+    int numTestConfigurations = testSuite.testConfigurations.size();
+    String[] namespaceKeys = new String[numTestConfigurations];
+    for (int ctr = 0; ctr < numTestConfigurations; ctr++) {
+      namespaceKeys[ctr] = kubernetesNamespaceKey(testSuite.testConfigurations.get(ctr));
+    }
+
+    // a thread that a test run did not start can't tell which test run it belongs to, so it gets
+    // no Kubernetes clients while the test configurations run in parallel
+    KubernetesClientUtils.setSharedContextEnabled(false);
+    ExecutorService threadPool = Executors.newFixedThreadPool(maxConcurrent);
+    CompletionService<Boolean> completionService = new ExecutorCompletionService<>(threadPool);
+    Map<Future<Boolean>, Integer> futureToIndex = new HashMap<>();
+    try {
+      // a namespace has a queue while one of its test configurations is submitted or running. the
+      // queue holds the ones that are waiting for it to finish
+      Map<String, Queue<Integer>> namespaceQueues = new HashMap<>();
+      for (int ctr = 0; ctr < numTestConfigurations; ctr++) {
+        String namespaceKey = namespaceKeys[ctr];
+        if (namespaceKey != null) {
+          Queue<Integer> namespaceQueue = namespaceQueues.get(namespaceKey);
+          if (namespaceQueue != null) {
+            namespaceQueue.add(ctr);
+            continue;
+          }
+          namespaceQueues.put(namespaceKey, new ArrayDeque<>());
+        }
+        submitTestConfiguration(
+            completionService, futureToIndex, testSuite, ctr, outputParentDirName);
+      }
+
+      // collect the results as they finish, and start the next test configuration in the namespace
+      Boolean[] failedFlags = new Boolean[numTestConfigurations];
+      for (int ctr = 0; ctr < numTestConfigurations; ctr++) {
+        Future<Boolean> future = completionService.take();
+        int index = futureToIndex.get(future);
+        try {
+          failedFlags[index] = future.get();
+        } catch (ExecutionException execEx) {
+          logger.error("Test Runner threw an exception", execEx.getCause());
+          failedFlags[index] = true;
+        }
+
+        String namespaceKey = namespaceKeys[index];
+        if (namespaceKey != null) {
+          Integer nextIndex = namespaceQueues.get(namespaceKey).poll();
+          if (nextIndex == null) {
+            namespaceQueues.remove(namespaceKey);
+          } else {
+            submitTestConfiguration(
+                completionService, futureToIndex, testSuite, nextIndex, outputParentDirName);
           }
         }
-      } catch (Exception runnerEx) {
-        logger.error("Test Runner threw an exception", runnerEx);
-        testConfigFailed = true;
       }
+      boolean isFailure = false;
+      for (int ctr = 0; ctr < failedFlags.length; ctr++) {
+        testConfigNameToFailed.put(testSuite.testConfigurations.get(ctr).name, failedFlags[ctr]);
+        isFailure = isFailure || failedFlags[ctr];
+      }
+      return isFailure;
+    } finally {
+      threadPool.shutdownNow();
+      KubernetesClientUtils.setSharedContextEnabled(true);
+    }
+  }
 
-      // update the failure flag for this test config and the whole suite
-      testConfigNameToFailed.put(testConfiguration.name, testConfigFailed);
-      isFailure = isFailure || testConfigFailed;
+  private static void submitTestConfiguration(
+      CompletionService<Boolean> completionService,
+      Map<Future<Boolean>, Integer> futureToIndex,
+      TestSuite testSuite,
+      int index,
+      String outputParentDirName) {
+    TestConfiguration testConfiguration = testSuite.testConfigurations.get(index);
+    Future<Boolean> future =
+        completionService.submit(
+            () ->
+                runTestConfiguration(
+                    testSuite, testConfiguration, index, true, outputParentDirName));
+    futureToIndex.put(future, index);
+  }
 
-      logger.info("==== TEST RUN RESULTS ({}) {} ====", ctr + 1, testConfiguration.name);
-      String outputDirName =
-          outputParentDirName; // if running a single config, put the results in the given directory
-      if (isSuite) { // if running a suite, put each config results in a separate sub-directory
-        outputDirName =
-            Paths.get(outputParentDirName)
-                .resolve(testConfiguration.name + "_" + runner.summary.id)
-                .toAbsolutePath()
-                .toString();
+  /**
+   * Get a key for the Kubernetes namespace that a test configuration deploys to or manipulates.
+   *
+   * @return the cluster and namespace, or null if the test configuration doesn't touch Kubernetes
+   */
+  private static String kubernetesNamespaceKey(TestConfiguration testConfiguration) {
+    boolean touchesKubernetes = !testConfiguration.server.skipDeployment;
+    if (!testConfiguration.server.skipKubernetes) {
+      touchesKubernetes =
+          touchesKubernetes
+              || testConfiguration.kubernetes.numberOfInitialPods != null
+              || !testConfiguration.allDisruptiveScripts().isEmpty()
+              || testConfiguration.testScripts.stream()
+                  .anyMatch(testScript -> testScript.scriptClassInstance().manipulatesKubernetes());
+    }
+    if (!touchesKubernetes) {
+      return null;
+    }
+    return testConfiguration.server.cluster.clusterShortName
+        + "/"
+        + testConfiguration.server.cluster.namespace;
+  }
+
+  /** True if the test run was stopped early, or any of the test scripts failed. */
+  private boolean summaryHasFailure() {
+    if (summary.stopReason != null) {
+      return true;
+    }
+    for (TestScriptResultSummary testScriptResultSummary : summary.testScriptResultSummaries) {
+      if (testScriptResultSummary.isFailure) {
+        return true;
       }
-      runner.writeOutResults(outputDirName);
+    }
+    return false;
+  }
 
-      TimeUnit.SECONDS.sleep(5);
+  /**
+   * Execute a worker's partition of the user journeys of a distributed test configuration and write
+   * out its results. This is the entry point of the worker processes that the coordinator starts.
+   *
+   * @param configFileName file name of the test configuration, in the configs resource directory
+   * @param outputDirName directory to write the results of this worker to
+   * @param workerIndex index of this worker, in [0,numberOfWorkers)
+   * @param numberOfWorkers total number of workers
+   * @param startEpochMillis wall-clock time at which all the workers start the user journeys
+   * @return true if this worker's partition failed
+   */
+  public static boolean runWorker(
+      String configFileName,
+      String outputDirName,
+      int workerIndex,
+      int numberOfWorkers,
+      long startEpochMillis)
+      throws Exception {
+    TestConfiguration testConfiguration = TestConfiguration.fromJSONFile(configFileName);
+    testConfiguration.validate();
+
+    // the coordinator deploys the server, determines its version and runs the disruptive script.
+    // the workers run on the same host, so they can't share the progress HTTP port
+    testConfiguration.server.skipDeployment = true;
+    testConfiguration.server.versionScripts = null;
+    testConfiguration.disruptiveScript = null;
+    testConfiguration.disruptiveScripts = new ArrayList<>();
+    testConfiguration.progressHttpPort = null;
+
+    logger.info(
+        "==== EXECUTING WORKER ({} of {}) {} ====",
+        workerIndex + 1,
+        numberOfWorkers,
+        testConfiguration.name);
+    TestRunner runner = new TestRunner(testConfiguration);
+    runner.workerPartition = new WorkerPartition(workerIndex, numberOfWorkers);
+    runner.workerStartEpochMillis = startEpochMillis;
+    runner.setOutputDirectory(outputDirName);
+    boolean workerFailed;
+    try {
+      runner.executeTestConfiguration();
+      workerFailed = runner.summaryHasFailure();
+    } catch (Exception runnerEx) {
+      logger.error("Worker threw an exception", runnerEx);
+      workerFailed = true;
     }
-    printSuiteResults(testConfigNameToFailed);
 
-    return isFailure;
+    runner.writeOutResults(outputDirName);
+    return workerFailed;
+  }
+
+  /**
+   * Execute a single test configuration of a suite and write out its results.
+   *
+   * @param ctr index of the test configuration in the suite
+   * @param isSuite true to put the results in a sub-directory of the output directory
+   * @return true if the test configuration failed
+   */
+  private static boolean runTestConfiguration(
+      TestSuite testSuite,
+      TestConfiguration testConfiguration,
+      int ctr,
+      boolean isSuite,
+      String outputParentDirName)
+      throws Exception {
+    logger.info("==== EXECUTING TEST CONFIGURATION ({}) {} ====", ctr + 1, testConfiguration.name);
+    logger.info(testConfiguration.display());
+
+    // get an instance of a runner and tell it to execute the configuration
+    TestRunner runner = new TestRunner(testConfiguration);
+    runner.summary.setTestSuiteName(testSuite.name);
+    String outputDirName =
+        outputParentDirName; // if running a single config, put the results in the given directory
+    if (isSuite) { // if running a suite, put each config results in a separate sub-directory
+      outputDirName =
+          Paths.get(outputParentDirName)
+              .resolve(testConfiguration.name + "_" + runner.summary.id)
+              .toAbsolutePath()
+              .toString();
+    }
+    runner.setOutputDirectory(outputDirName);
+    boolean testConfigFailed = false;
+    try {
+      runner.executeTestConfiguration();
+
+      // even if the test configuration didn't throw an exception, it still may have failed due to
+      // a timeout or a stop condition
+      testConfigFailed = runner.summaryHasFailure();
+    } catch (Exception runnerEx) {
+      logger.error("Test Runner threw an exception", runnerEx);
+      testConfigFailed = true;
+    }
+
+    logger.info("==== TEST RUN RESULTS ({}) {} ====", ctr + 1, testConfiguration.name);
+    runner.writeOutResults(outputDirName);
+    return testConfigFailed;
   }
 }
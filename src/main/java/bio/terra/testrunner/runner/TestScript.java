@@ -1,5 +1,6 @@
 package bio.terra.testrunner.runner;
 
+import bio.terra.testrunner.common.utils.AuthenticationUtils;
 import bio.terra.testrunner.runner.config.ServerSpecification;
 import bio.terra.testrunner.runner.config.TestUserSpecification;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -17,6 +18,8 @@ public abstract class TestScript {
   protected String billingAccount;
   protected ServerSpecification server;
   protected boolean manipulatesKubernetes = false;
+  protected List<String> testUserScopes = AuthenticationUtils.userLoginScopes;
+  private StepTimings stepTimings = new StepTimings();
 
   /**
    * Setter for the billing account property of this class. This property will be set by the Test
@@ -50,6 +53,47 @@ public abstract class TestScript {
     return manipulatesKubernetes;
   }
 
+  /**
+   * Getter for the test user scopes property of this class. Before kicking off the user journeys,
+   * the Test Runner fetches an access token with these scopes for each test user, so that the first
+   * user journey of each user doesn't include the time to get one. This property may be overridden
+   * by Test Script classes that use other scopes, or set to an empty list to skip fetching the
+   * tokens. The default value is {@link AuthenticationUtils#userLoginScopes}.
+   *
+   * @return the scopes of the test user credentials that the user journeys use
+   */
+  public List<String> testUserScopes() {
+    return testUserScopes;
+  }
+
+  /**
+   * Setter for the step timings of this class. The Test Runner sets this to the step timings of the
+   * current test run before kicking off the user journeys.
+   *
+   * @param stepTimings where recordStep saves the step latencies
+   */
+  void setStepTimings(StepTimings stepTimings) {
+    this.stepTimings = stepTimings;
+  }
+
+  /**
+   * Record the time taken by a named step of the user journey (e.g. a single API call). The Test
+   * Runner reports latency statistics for each step name, in addition to the whole user journey.
+   * This is cheap enough to call around every API call, and is safe to call from multiple threads.
+   *
+   * <pre>
+   * long startTime = System.nanoTime();
+   * datasetsApi.createDataset(request);
+   * recordStep("createDataset", startTime);
+   * </pre>
+   *
+   * @param stepName the name of the step, used to group the latencies
+   * @param startTimeNS the {@link System#nanoTime()} value at the start of the step
+   */
+  protected void recordStep(String stepName, long startTimeNS) {
+    stepTimings.record(stepName, System.nanoTime() - startTimeNS);
+  }
+
   /**
    * Setter for any parameters required by the test script. These parameters will be set by the Test
    * Runner based on the current Test Configuration, and can be used by the Test script methods.
@@ -0,0 +1,49 @@
+package bio.terra.testrunner.runner;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.HdrHistogram.Histogram;
+
+/**
+ * A live snapshot of the user journeys of a single test script, taken while the test run is in
+ * progress. The interval fields cover only the time since the previous snapshot, so they show the
+ * current behavior rather than the average over the whole run.
+ */
+@SuppressFBWarnings(
+    value = "URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD",
+    justification = "This POJO class is used for easy serialization to JSON using Jackson.")
+public class TestScriptProgress {
+  public String testScriptName;
+  public String testScriptDescription;
+
+  // cumulative counts since the beginning of the user journeys
+  public int numKickedOff;
+  public int numQueued; // kicked off, but waiting for a thread
+  public int numRunning;
+  public int numCompleted;
+  public int numExceptionsThrown;
+
+  // since the previous snapshot
+  public double intervalSeconds;
+  public int intervalCompletions;
+  public int intervalErrors;
+  public double completionsPerSecond;
+  public double errorRate; // fraction of the interval completions that threw an exception
+
+  // corrected latency percentiles of the user journeys that completed in the interval, 0 if none
+  public double p50Millis;
+  public double p90Millis;
+  public double p99Millis;
+  public double maxMillis;
+
+  // corrected latencies in nanoseconds of the user journeys that completed in the interval. this is
+  // for evaluating the stop conditions, it is not written to the progress file
+  @JsonIgnore public Histogram intervalLatencyHistogram;
+
+  public TestScriptProgress() {} // default constructor so Jackson can deserialize
+
+  TestScriptProgress(String testScriptName, String testScriptDescription) {
+    this.testScriptName = testScriptName;
+    this.testScriptDescription = testScriptDescription;
+  }
+}
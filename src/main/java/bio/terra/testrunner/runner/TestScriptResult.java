@@ -1,50 +1,387 @@
 package bio.terra.testrunner.runner;
 
 import bio.terra.testrunner.common.BasicStatistics;
+import bio.terra.testrunner.common.utils.HistogramUtils;
+import bio.terra.testrunner.runner.config.ArrivalRateSpecification;
+import bio.terra.testrunner.runner.config.LoadPhaseSpecification;
 import bio.terra.testrunner.runner.config.TestScriptSpecification;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * The results of all the user journeys for a single test script. The results are recorded one at a
+ * time as each user journey finishes: they are appended to a raw data file and folded into the
+ * summary statistics, so memory use does not grow with the number of user journeys.
+ */
 public class TestScriptResult {
-  public List<UserJourneyResult> userJourneyResults;
+  private static final Logger logger = LoggerFactory.getLogger(TestScriptResult.class);
+
+  // streamed back from the raw data file, so the results are never all held in memory
+  public Iterable<UserJourneyResult> userJourneyResults;
   public TestScriptResultSummary summary;
 
+  private final UserJourneyResultSink sink;
+  private final String testScriptName;
+
+  // latencies in nanoseconds, and their exact sums. these are recorded without taking the lock
+  private final Histogram elapsedTimeHistogram = HistogramUtils.newConcurrentHistogram();
+  private final Histogram correctedElapsedTimeHistogram = HistogramUtils.newConcurrentHistogram();
+  private final LongAdder elapsedTimeSumNS = new LongAdder();
+  private final LongAdder correctedElapsedTimeSumNS = new LongAdder();
+
+  private final UserJourneyTimeSeries timeSeries;
+
+  // latencies of the named steps inside the user journeys, recorded by the test script
+  private final StepTimings stepTimings = new StepTimings();
+
+  // keyed by phase name, in phase order. empty unless the arrival rate profile has phases
+  private final Map<String, PhaseAccumulator> phaseAccumulators = new LinkedHashMap<>();
+
+  // live counts for the progress snapshots. these are reset by each snapshot, except numRunning
+  private final AtomicInteger numRunning = new AtomicInteger();
+  private final Recorder intervalLatencyRecorder =
+      new Recorder(HistogramUtils.numberOfSignificantValueDigits);
+  private int intervalCompletions = 0;
+  private int intervalErrors = 0;
+
+  private int numKickedOff = 0;
+  private int numRecorded = 0;
+
+  // recording shares the read lock, finish takes the write lock, so no result is recorded after
+  // the statistics are calculated. the counts and the time series are guarded by this object
+  private final ReadWriteLock finishLock = new ReentrantReadWriteLock();
+  private boolean finished = false;
+
   public TestScriptResult(
-      TestScriptSpecification testScriptSpecification, List<UserJourneyResult> userJourneyResults) {
-    this.userJourneyResults = userJourneyResults;
+      TestScriptSpecification testScriptSpecification,
+      File rawDataFile,
+      long timeSeriesWindowSeconds)
+      throws IOException {
+    this.sink = new UserJourneyResultSink(rawDataFile);
+    this.userJourneyResults = sink::readResults;
+    this.testScriptName = testScriptSpecification.name;
+    this.timeSeries =
+        new UserJourneyTimeSeries(testScriptSpecification.description, timeSeriesWindowSeconds);
 
     summary =
         new TestScriptResultSummary(
             testScriptSpecification.name, testScriptSpecification.description);
-    calculateStatistics();
+
+    ArrivalRateSpecification arrivalRate = testScriptSpecification.arrivalRate;
+    if (arrivalRate != null && arrivalRate.profile == ArrivalRateSpecification.Profile.PHASES) {
+      long startOffsetSeconds = 0;
+      for (LoadPhaseSpecification phase : arrivalRate.phases) {
+        phaseAccumulators.put(
+            phase.name,
+            new PhaseAccumulator(
+                new LoadPhaseResultSummary(phase.name, startOffsetSeconds, phase.durationSeconds)));
+        startOffsetSeconds += phase.durationSeconds;
+      }
+    }
   }
 
   public TestScriptResultSummary getSummary() {
     return summary;
   }
 
-  public List<UserJourneyResult> getUserJourneyResults() {
+  public Iterable<UserJourneyResult> getUserJourneyResults() {
     return userJourneyResults;
   }
 
-  /** Loop through the UserJourneyResults calculating reporting statistics of interest. */
-  private void calculateStatistics() {
-    DescriptiveStatistics descriptiveStatistics = new DescriptiveStatistics();
-    for (int ctr = 0; ctr < userJourneyResults.size(); ctr++) {
-      UserJourneyResult result = userJourneyResults.get(ctr);
+  /**
+   * Read all the results back from the raw data file into a list, as this class returned them
+   * before the results were streamed. This holds every result in memory at once.
+   *
+   * @deprecated iterate over {@link #getUserJourneyResults()} instead
+   */
+  @Deprecated
+  @JsonIgnore
+  public List<UserJourneyResult> getUserJourneyResultsList() {
+    List<UserJourneyResult> results = new ArrayList<>();
+    userJourneyResults.forEach(results::add);
+    return results;
+  }
+
+  @JsonIgnore
+  public UserJourneyTimeSeries getTimeSeries() {
+    return timeSeries;
+  }
+
+  @JsonIgnore
+  public StepTimings getStepTimings() {
+    return stepTimings;
+  }
+
+  /** Count a user journey that was kicked off, i.e. submitted to the thread pool. */
+  public synchronized void userJourneyKickedOff() {
+    numKickedOff++;
+  }
+
+  /** Count a user journey that a thread picked up. Its result is expected to be recorded next. */
+  public void userJourneyStarted() {
+    numRunning.incrementAndGet();
+  }
+
+  /**
+   * Record the result of a single user journey: append it to the raw data file and fold it into the
+   * summary statistics. Results recorded after {@link #finish()} are ignored, because they have
+   * already been counted as not completed.
+   */
+  public void record(UserJourneyResult result) {
+    recordLine(result, toLine(result), true);
+  }
+
+  /**
+   * Merge in a single result of a worker process, in a distributed test run. The result is recorded
+   * the same way as the ones from this process, so the raw data file, histograms and time series
+   * cover all the workers, but it is not counted in the live progress of this process. The time
+   * series closes its earlier windows as results arrive, so the results of all the workers must be
+   * merged in order of their end times, not one worker after another.
+   *
+   * @param result a user journey result, streamed from a worker's raw data file
+   */
+  public void mergeWorkerResult(UserJourneyResult result) {
+    recordLine(result, toLine(result), false);
+  }
+
+  /**
+   * Merge in the counts and step timings from the summary of a worker process, after all of its
+   * results were merged. The worker recorded its own user journeys that never finished, so the
+   * number kicked off is taken from the worker summary.
+   *
+   * @param workerSummary the worker's summary for this test script, null if it didn't write one
+   * @param numMerged the number of results merged from the worker's raw data file
+   */
+  public synchronized void mergeWorkerSummary(
+      TestScriptResultSummary workerSummary, int numMerged) {
+    numKickedOff +=
+        (workerSummary == null) ? numMerged : Math.max(workerSummary.totalRun, numMerged);
+    if (workerSummary != null && workerSummary.stepSummaries != null) {
+      stepTimings.merge(workerSummary.stepSummaries);
+    }
+  }
+
+  /**
+   * Serialize a result before taking any locks. After that, the line is only queued for writing.
+   */
+  private String toLine(UserJourneyResult result) {
+    try {
+      return UserJourneyResultSink.toLine(result);
+    } catch (IOException ioEx) {
+      logger.error("Test Scripts: Error serializing user journey result: {}", testScriptName, ioEx);
+      return null;
+    }
+  }
+
+  private void recordLine(UserJourneyResult result, String line, boolean updateProgress) {
+    finishLock.readLock().lock();
+    try {
+      if (finished) {
+        logger.warn(
+            "Test Scripts: Ignoring user journey result recorded after the results were compiled: {}",
+            testScriptName);
+        return;
+      }
+
+      // the histograms and the recorder take values from many threads at once
+      elapsedTimeHistogram.recordValue(result.elapsedTimeNS);
+      correctedElapsedTimeHistogram.recordValue(result.correctedElapsedTimeNS);
+      elapsedTimeSumNS.add(result.elapsedTimeNS);
+      correctedElapsedTimeSumNS.add(result.correctedElapsedTimeNS);
+      if (result.completed && updateProgress) {
+        intervalLatencyRecorder.recordValue(result.correctedElapsedTimeNS);
+      }
+      PhaseAccumulator phaseAccumulator =
+          result.phase == null ? null : phaseAccumulators.get(result.phase);
+      if (phaseAccumulator != null) {
+        phaseAccumulator.record(result);
+      }
+
+      // the sink has its own lock, and waits if its writer thread falls behind, so the line is
+      // queued without holding this object's monitor
+      try {
+        if (line != null) {
+          sink.appendLine(line);
+        }
+      } catch (IOException ioEx) {
+        logger.error(
+            "Test Scripts: Error writing user journey result to file: {}", sink.getFile(), ioEx);
+      }
+
+      recordCounts(result, updateProgress);
+    } finally {
+      finishLock.readLock().unlock();
+    }
+  }
+
+  /** Update the counts and the time series, which are not thread-safe. */
+  private synchronized void recordCounts(UserJourneyResult result, boolean updateProgress) {
+    numRecorded++;
+
+    // count the number of user journeys that completed and threw exceptions
+    summary.numCompleted += (result.completed) ? 1 : 0;
+    summary.numExceptionsThrown += result.exceptionWasThrown ? 1 : 0;
+
+    // the user journeys that never finished have no end time to put in a window
+    if (result.completed) {
+      timeSeries.record(result);
+      if (updateProgress) {
+        numRunning.decrementAndGet();
+        intervalCompletions++;
+        intervalErrors += result.exceptionWasThrown ? 1 : 0;
+      }
+    }
+  }
+
+  /**
+   * Take a live snapshot of the user journeys for this test script, and start a new interval.
+   *
+   * @param intervalSeconds time since the previous snapshot, used to calculate the rates
+   * @return the snapshot
+   */
+  public synchronized TestScriptProgress takeProgressSnapshot(double intervalSeconds) {
+    TestScriptProgress progress =
+        new TestScriptProgress(testScriptName, timeSeries.testScriptDescription);
+    progress.numKickedOff = numKickedOff;
+    progress.numRunning = numRunning.get();
+    progress.numQueued = Math.max(numKickedOff - numRecorded - progress.numRunning, 0);
+    progress.numCompleted = summary.numCompleted;
+    progress.numExceptionsThrown = summary.numExceptionsThrown;
+
+    progress.intervalSeconds = intervalSeconds;
+    progress.intervalCompletions = intervalCompletions;
+    progress.intervalErrors = intervalErrors;
+    progress.completionsPerSecond = intervalSeconds > 0 ? intervalCompletions / intervalSeconds : 0;
+    progress.errorRate =
+        intervalCompletions > 0 ? (double) intervalErrors / intervalCompletions : 0;
+
+    Histogram intervalHistogram = intervalLatencyRecorder.getIntervalHistogram();
+    double nsPerMs = HistogramUtils.nanosecondsPerMillisecond;
+    progress.p50Millis = intervalHistogram.getValueAtPercentile(50) / nsPerMs;
+    progress.p90Millis = intervalHistogram.getValueAtPercentile(90) / nsPerMs;
+    progress.p99Millis = intervalHistogram.getValueAtPercentile(99) / nsPerMs;
+    progress.maxMillis = intervalHistogram.getMaxValue() / nsPerMs;
+    progress.intervalLatencyHistogram = intervalHistogram;
+
+    intervalCompletions = 0;
+    intervalErrors = 0;
+    return progress;
+  }
 
-      // count the number of user journeys that completed and threw exceptions
-      summary.numCompleted += (result.completed) ? 1 : 0;
-      summary.numExceptionsThrown += result.exceptionWasThrown ? 1 : 0;
+  /**
+   * Stop recording results and calculate the reporting statistics of interest. Any user journeys
+   * that were kicked off but never recorded a result either were never started or got cancelled
+   * before they finished, so they are recorded as not completed. Calling this method more than once
+   * has no effect.
+   */
+  public void finish() {
+    finishLock.writeLock().lock();
+    try {
+      synchronized (this) {
+        finishLocked();
+      }
+    } finally {
+      finishLock.writeLock().unlock();
+    }
+  }
 
-      // convert elapsed time from nanosecods to milliseconds
-      descriptiveStatistics.addValue(result.elapsedTimeNS / (1e6));
+  private void finishLocked() {
+    if (finished) {
+      return;
+    }
+    for (int ctr = numRecorded; ctr < numKickedOff; ctr++) {
+      UserJourneyResult result = new UserJourneyResult(testScriptName, "");
+      result.completed = false;
+      record(result);
     }
+    finished = true;
+    try {
+      sink.close();
+    } catch (IOException ioEx) {
+      logger.error("Test Scripts: Error closing user journey results file: {}", sink.getFile());
+    }
+
+    // convert elapsed time from nanoseconds to milliseconds
     summary.elapsedTimeStatistics =
-        BasicStatistics.calculateStandardStatistics(descriptiveStatistics);
-    summary.totalRun = userJourneyResults.size();
+        BasicStatistics.calculateStandardStatistics(
+            elapsedTimeHistogram, elapsedTimeSumNS.sum(), HistogramUtils.nanosecondsPerMillisecond);
+    summary.correctedElapsedTimeStatistics =
+        BasicStatistics.calculateStandardStatistics(
+            correctedElapsedTimeHistogram,
+            correctedElapsedTimeSumNS.sum(),
+            HistogramUtils.nanosecondsPerMillisecond);
+    summary.elapsedTimeHistogram = HistogramUtils.encode(elapsedTimeHistogram);
+    summary.correctedElapsedTimeHistogram = HistogramUtils.encode(correctedElapsedTimeHistogram);
+    summary.totalRun = numKickedOff;
+    summary.stepSummaries = stepTimings.summarize();
+    timeSeries.finish();
+    if (!phaseAccumulators.isEmpty()) {
+      summary.loadPhaseSummaries =
+          phaseAccumulators.values().stream()
+              .map(PhaseAccumulator::summarize)
+              .collect(Collectors.toList());
+    }
 
     summary.isFailure =
         (summary.numCompleted < summary.totalRun) || (summary.numExceptionsThrown > 0);
   }
+
+  /**
+   * Accumulates the results of the user journeys whose intended start fell in one load phase. This
+   * class is thread-safe.
+   */
+  private static class PhaseAccumulator {
+    private final LoadPhaseResultSummary phaseSummary;
+    private final AtomicInteger numRun = new AtomicInteger();
+    private final AtomicInteger numExceptionsThrown = new AtomicInteger();
+    private final Histogram elapsedTimeHistogram = HistogramUtils.newConcurrentHistogram();
+    private final Histogram correctedElapsedTimeHistogram = HistogramUtils.newConcurrentHistogram();
+    private final LongAdder elapsedTimeSumNS = new LongAdder();
+    private final LongAdder correctedElapsedTimeSumNS = new LongAdder();
+
+    PhaseAccumulator(LoadPhaseResultSummary phaseSummary) {
+      this.phaseSummary = phaseSummary;
+    }
+
+    void record(UserJourneyResult result) {
+      numRun.incrementAndGet();
+      numExceptionsThrown.addAndGet(result.exceptionWasThrown ? 1 : 0);
+      elapsedTimeHistogram.recordValue(result.elapsedTimeNS);
+      correctedElapsedTimeHistogram.recordValue(result.correctedElapsedTimeNS);
+      elapsedTimeSumNS.add(result.elapsedTimeNS);
+      correctedElapsedTimeSumNS.add(result.correctedElapsedTimeNS);
+    }
+
+    LoadPhaseResultSummary summarize() {
+      phaseSummary.numRun = numRun.get();
+      phaseSummary.numExceptionsThrown = numExceptionsThrown.get();
+      phaseSummary.throughputPerSecond =
+          (double) phaseSummary.numRun / phaseSummary.durationSeconds;
+      phaseSummary.elapsedTimeStatistics =
+          BasicStatistics.calculateStandardStatistics(
+              elapsedTimeHistogram,
+              elapsedTimeSumNS.sum(),
+              HistogramUtils.nanosecondsPerMillisecond);
+      phaseSummary.correctedElapsedTimeStatistics =
+          BasicStatistics.calculateStandardStatistics(
+              correctedElapsedTimeHistogram,
+              correctedElapsedTimeSumNS.sum(),
+              HistogramUtils.nanosecondsPerMillisecond);
+      return phaseSummary;
+    }
+  }
 }
@@ -2,6 +2,7 @@ package bio.terra.testrunner.runner;
 
 import bio.terra.testrunner.common.BasicStatistics;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.List;
 
 /** Summary statistics are pulled out into a separate class for easier summary reporting. */
 @SuppressFBWarnings(
@@ -12,6 +13,12 @@ public class TestScriptResultSummary {
   public String testScriptDescription;
 
   public BasicStatistics elapsedTimeStatistics;
+  public BasicStatistics correctedElapsedTimeStatistics; // includes time queued in the thread pool
+
+  // compressed, Base64-encoded HDR histograms of the latencies in nanoseconds. these can be decoded
+  // and merged across test runs with HistogramUtils
+  public String elapsedTimeHistogram;
+  public String correctedElapsedTimeHistogram;
 
   public int totalRun; // total number of user journey threads submitted to the thread pool
   public int numCompleted; // number of user journey threads that completed
@@ -19,6 +26,12 @@ public class TestScriptResultSummary {
 
   public boolean isFailure; // numCompleted < totalRun
 
+  // latency statistics for each named step recorded by the user journeys, sorted by step name
+  public List<StepResultSummary> stepSummaries;
+
+  // per-phase statistics, in phase order. null unless the arrival rate profile has phases
+  public List<LoadPhaseResultSummary> loadPhaseSummaries;
+
   public TestScriptResultSummary() {} // default constructor so Jackson can deserialize
 
   TestScriptResultSummary(String testScriptName, String testScriptDescription) {
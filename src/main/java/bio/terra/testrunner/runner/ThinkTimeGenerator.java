@@ -0,0 +1,47 @@
+package bio.terra.testrunner.runner;
+
+import bio.terra.testrunner.runner.config.ClosedLoopSpecification;
+import java.util.Random;
+
+/**
+ * Generates the pauses between the iterations of a closed-loop virtual user.
+ *
+ * <p>This class is not thread-safe. Each virtual user should use its own instance.
+ */
+public class ThinkTimeGenerator {
+  private final ClosedLoopSpecification.ThinkTime specification;
+  private final Random random;
+
+  /**
+   * @param specification the think time distribution
+   * @param virtualUserIndex the index of the virtual user, so that each user gets a different
+   *     sequence when a random seed is specified
+   */
+  public ThinkTimeGenerator(ClosedLoopSpecification.ThinkTime specification, int virtualUserIndex) {
+    this.specification = specification;
+    this.random =
+        specification.randomSeed == null
+            ? new Random()
+            : new Random(specification.randomSeed + virtualUserIndex);
+  }
+
+  /** Return the next think time in milliseconds. */
+  public long nextThinkTimeMillis() {
+    switch (specification.distribution) {
+      case NONE:
+        return 0;
+      case CONSTANT:
+        return specification.meanMillis;
+      case UNIFORM:
+        return specification.minMillis
+            + (long) (random.nextDouble() * (specification.maxMillis - specification.minMillis));
+      case EXPONENTIAL:
+        // inverse transform sampling of the exponential distribution
+        double sampleMillis = -Math.log(1.0 - random.nextDouble()) * specification.meanMillis;
+        return Math.min((long) sampleMillis, specification.upperBoundMillis());
+      default:
+        throw new IllegalArgumentException(
+            "Unsupported think time distribution: " + specification.distribution);
+    }
+  }
+}
@@ -14,8 +14,24 @@ public class UserJourneyResult {
   public String threadName;
 
   public boolean completed;
+
+  // service time: from when a thread picks up the user journey until it finishes
   public long elapsedTimeNS;
 
+  // offsets since the beginning of the user journey portion of the test run. the intended start is
+  // when the user journey was kicked off (i.e. queued in the thread pool or scheduled by the
+  // arrival rate), the actual start is when a thread picked it up.
+  public long intendedStartTimeNS;
+  public long actualStartTimeNS;
+
+  // corrected latency: from the intended start until the user journey finishes. unlike the service
+  // time, this includes any time spent queued behind other user journeys, which is what a real user
+  // would see
+  public long correctedElapsedTimeNS;
+
+  // name of the load phase the intended start fell in, null if the arrival rate has no phases
+  public String phase;
+
   public boolean exceptionWasThrown;
   public String exceptionStackTrace;
   public String exceptionMessage;
@@ -0,0 +1,221 @@
+package bio.terra.testrunner.runner;
+
+import bio.terra.testrunner.common.utils.FileUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Appends user journey results to an append-only JSON Lines file (one JSON object per line) as they
+ * complete. The lines are handed to a single writer thread, so the user journey threads never wait
+ * on the file. The writer flushes the file at least once a second, and more often when a lot of
+ * results arrive, so the results written so far survive a crash of the test run, and the Test
+ * Runner never needs to hold them all in memory.
+ */
+public class UserJourneyResultSink implements Closeable {
+  private static final Logger logger = LoggerFactory.getLogger(UserJourneyResultSink.class);
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  // lines waiting for the writer thread. if the disk can't keep up, appending waits for room
+  private static final int maxQueuedLines = 10000;
+  private static final int maxUnflushedLines = 1000;
+  private static final long flushIntervalMillis = 1000;
+
+  // queued by close(), compared by reference so that no result line can be mistaken for it
+  private static final String endOfResults = new String("");
+
+  private final File file;
+  private final Writer writer;
+  private final BlockingQueue<String> queuedLines = new LinkedBlockingQueue<>(maxQueuedLines);
+  private final Thread writerThread;
+
+  // appends share the read lock, close takes the write lock, so no line is queued after the end
+  private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+  private boolean closed = false;
+  private volatile IOException writeFailure;
+
+  public UserJourneyResultSink(File file) throws IOException {
+    this.file = FileUtils.createNewFile(file);
+    this.writer =
+        new BufferedWriter(
+            new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+    this.writerThread = new Thread(this::writeQueuedLines, "result-sink-" + file.getName());
+    writerThread.setDaemon(true);
+    writerThread.start();
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Convert a result to the line that {@link #appendLine(String)} writes. This is the expensive
+   * part of appending a result, so callers can do it before taking any locks of their own.
+   *
+   * @param result the user journey result
+   * @return the result as a single line of JSON, without the line separator
+   */
+  public static String toLine(UserJourneyResult result) throws JsonProcessingException {
+    return objectMapper.writeValueAsString(result);
+  }
+
+  /**
+   * Append a single result to the file. This method is safe to call from multiple threads.
+   *
+   * @param result the user journey result to append
+   * @return true if the result was appended, false if the sink was already closed
+   */
+  public boolean append(UserJourneyResult result) throws IOException {
+    return appendLine(toLine(result));
+  }
+
+  /**
+   * Queue a line from {@link #toLine(UserJourneyResult)} for the writer thread. This only waits if
+   * the writer has fallen {@value #maxQueuedLines} lines behind. This method is safe to call from
+   * multiple threads.
+   *
+   * @param line the result line
+   * @return true if the line was queued, false if the sink was already closed
+   * @throws IOException if an earlier line could not be written
+   */
+  public boolean appendLine(String line) throws IOException {
+    throwIfWriteFailed();
+    closeLock.readLock().lock();
+    try {
+      if (closed) {
+        return false;
+      }
+      queuedLines.put(line);
+      return true;
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting to append a user journey result");
+    } finally {
+      closeLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Wait for the writer thread to write out the queued lines, and close the file. Calling this
+   * method more than once has no effect.
+   *
+   * @throws IOException if any of the lines could not be written
+   */
+  @Override
+  public void close() throws IOException {
+    closeLock.writeLock().lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      queuedLines.put(endOfResults);
+      writerThread.join();
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(
+          "Interrupted waiting for user journey results to be written");
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+    throwIfWriteFailed();
+  }
+
+  private void throwIfWriteFailed() throws IOException {
+    IOException failure = writeFailure;
+    if (failure != null) {
+      throw new IOException("Error writing user journey results to file: " + file, failure);
+    }
+  }
+
+  /** Body of the writer thread: write the queued lines, flushing them in batches. */
+  private void writeQueuedLines() {
+    long lastFlushNS = System.nanoTime();
+    int numUnflushedLines = 0;
+    try {
+      while (true) {
+        String line = queuedLines.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        if (line == endOfResults) {
+          break;
+        }
+        try {
+          if (line != null && writeFailure == null) {
+            writer.write(line);
+            writer.write('\n');
+            numUnflushedLines++;
+          }
+          // flush when the queue goes quiet, after a batch of lines, or after the flush interval
+          long nowNS = System.nanoTime();
+          if (numUnflushedLines > 0
+              && (line == null
+                  || numUnflushedLines >= maxUnflushedLines
+                  || nowNS - lastFlushNS >= TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis))) {
+            writer.flush();
+            numUnflushedLines = 0;
+            lastFlushNS = nowNS;
+          }
+        } catch (IOException ioEx) {
+          // keep draining the queue, so that appending threads don't wait forever for room
+          logger.error("Test Scripts: Error writing user journey results to file: {}", file, ioEx);
+          writeFailure = ioEx;
+        }
+      }
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+    } finally {
+      try {
+        writer.close();
+      } catch (IOException ioEx) {
+        if (writeFailure == null) {
+          writeFailure = ioEx;
+        }
+      }
+    }
+  }
+
+  /**
+   * Read the results back from the file, one line at a time. Each call starts a new pass over the
+   * file, so the returned iterator does not hold more than a single result in memory. Until the
+   * sink is closed, the last second or so of results may not have been written yet.
+   *
+   * @return an iterator over the results written so far
+   */
+  public Iterator<UserJourneyResult> readResults() {
+    return readResults(file);
+  }
+
+  /**
+   * Read the results back from a file written by a sink, e.g. by another process, one line at a
+   * time.
+   *
+   * @param file the JSON Lines file to read
+   * @return an iterator over the results in the file
+   */
+  public static Iterator<UserJourneyResult> readResults(File file) {
+    try {
+      ObjectReader objectReader = objectMapper.readerFor(UserJourneyResult.class);
+      return objectReader.readValues(file);
+    } catch (IOException ioEx) {
+      throw new UncheckedIOException("Error reading user journey results from file: " + file, ioEx);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package bio.terra.testrunner.runner;
+
+import bio.terra.testrunner.common.utils.HistogramUtils;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Throughput and latency of the user journeys of a single test script, in fixed time windows. Each
+ * user journey is counted in the window that contains its end time. The windows are stored column
+ * by column, so the series stays compact even for long test runs: element i of each list describes
+ * the window that starts at windowStartSeconds[i].
+ *
+ * <p>Only the windows that may still receive results are kept in memory; older windows are reduced
+ * to a row of numbers. This class is not thread-safe, callers must synchronize.
+ */
+@SuppressFBWarnings(
+    value = "URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD",
+    justification = "This POJO class is used for easy serialization to JSON using Jackson.")
+public class UserJourneyTimeSeries {
+  public String testScriptDescription;
+  public long windowSeconds;
+
+  // offset of each window from the beginning of the user journey portion of the test run
+  public List<Long> windowStartSeconds = new ArrayList<>();
+  public List<Integer> completions = new ArrayList<>();
+  public List<Integer> errors = new ArrayList<>(); // user journeys that threw an exception
+
+  // corrected latency percentiles of the user journeys that completed in the window, 0 if none
+  public List<Double> p50Millis = new ArrayList<>();
+  public List<Double> p90Millis = new ArrayList<>();
+  public List<Double> p99Millis = new ArrayList<>();
+  public List<Double> maxMillis = new ArrayList<>();
+
+  // type and description of the disruption events in each window, null if there were none
+  public List<List<String>> disruptionEvents;
+
+  // windows that have not been reduced yet, keyed by window index
+  private final TreeMap<Long, Window> openWindows = new TreeMap<>();
+  private long nextWindowToClose = 0;
+
+  public UserJourneyTimeSeries() {} // default constructor so Jackson can deserialize
+
+  UserJourneyTimeSeries(String testScriptDescription, long windowSeconds) {
+    this.testScriptDescription = testScriptDescription;
+    this.windowSeconds = windowSeconds;
+  }
+
+  /**
+   * Count a finished user journey in the window that contains its end time. User journeys finish
+   * roughly in order, so the windows more than one before the latest are closed.
+   *
+   * @param result a user journey result with the timing fields populated
+   */
+  void record(UserJourneyResult result) {
+    long endOffsetNS = result.actualStartTimeNS + result.elapsedTimeNS;
+    long windowIndex = Math.max(endOffsetNS, 0) / TimeUnit.SECONDS.toNanos(windowSeconds);
+    if (windowIndex < nextWindowToClose) {
+      // a straggler for a window that was already closed, count it in the oldest open one
+      windowIndex = nextWindowToClose;
+    }
+    Window window = openWindows.computeIfAbsent(windowIndex, index -> new Window());
+    window.completions++;
+    window.errors += result.exceptionWasThrown ? 1 : 0;
+    window.latencyHistogram.recordValue(result.correctedElapsedTimeNS);
+
+    closeWindowsBefore(windowIndex - 1);
+  }
+
+  /** Close all the remaining windows. Call this once, after the last user journey finished. */
+  void finish() {
+    if (!openWindows.isEmpty()) {
+      closeWindowsBefore(openWindows.lastKey() + 1);
+    }
+  }
+
+  /**
+   * Annotate the closed windows with the disruption events that happened in them. Events before the
+   * first window or after the last one are only listed in the test run time series.
+   *
+   * @param events the disruption events of the test run, aligned to the same windows
+   */
+  void annotate(List<DisruptionEvent> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    disruptionEvents = new ArrayList<>();
+    for (int ctr = 0; ctr < windowStartSeconds.size(); ctr++) {
+      disruptionEvents.add(new ArrayList<>());
+    }
+    for (DisruptionEvent event : events) {
+      if (event.windowStartSeconds == null) {
+        continue;
+      }
+      long windowIndex = event.windowStartSeconds / windowSeconds;
+      if (windowIndex < disruptionEvents.size()) {
+        disruptionEvents.get((int) windowIndex).add(event.type + ": " + event.description);
+      }
+    }
+  }
+
+  /** Reduce the windows before the given index to a row each, including empty windows. */
+  private void closeWindowsBefore(long windowIndex) {
+    for (; nextWindowToClose < windowIndex; nextWindowToClose++) {
+      Window window = openWindows.remove(nextWindowToClose);
+      windowStartSeconds.add(nextWindowToClose * windowSeconds);
+      completions.add(window == null ? 0 : window.completions);
+      errors.add(window == null ? 0 : window.errors);
+      p50Millis.add(window == null ? 0 : window.latencyMillisAtPercentile(50));
+      p90Millis.add(window == null ? 0 : window.latencyMillisAtPercentile(90));
+      p99Millis.add(window == null ? 0 : window.latencyMillisAtPercentile(99));
+      maxMillis.add(window == null ? 0 : window.latencyMillisAtPercentile(100));
+    }
+  }
+
+  /** The results counted in a single window that has not been closed yet. */
+  private static class Window {
+    int completions;
+    int errors;
+    final Histogram latencyHistogram = new Histogram(HistogramUtils.numberOfSignificantValueDigits);
+
+    double latencyMillisAtPercentile(double percentile) {
+      return latencyHistogram.getValueAtPercentile(percentile)
+          / HistogramUtils.nanosecondsPerMillisecond;
+    }
+  }
+}
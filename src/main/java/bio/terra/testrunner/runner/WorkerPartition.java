@@ -0,0 +1,53 @@
+package bio.terra.testrunner.runner;
+
+/**
+ * The share of the user journeys that a single worker process runs, in a distributed test run.
+ * Every worker walks through the same sequence of user journeys (or virtual users, or arrivals) and
+ * runs only the ones whose index falls in its partition, so the workers together run each user
+ * journey exactly once and keep the same test user for it as a single-node run would.
+ */
+public final class WorkerPartition {
+  /** The partition of a test run that is not distributed: it runs every user journey. */
+  public static final WorkerPartition SINGLE_NODE = new WorkerPartition(0, 1);
+
+  private final int workerIndex;
+  private final int numberOfWorkers;
+
+  public WorkerPartition(int workerIndex, int numberOfWorkers) {
+    if (numberOfWorkers < 1) {
+      throw new IllegalArgumentException("Number of workers must be >=1");
+    }
+    if (workerIndex < 0 || workerIndex >= numberOfWorkers) {
+      throw new IllegalArgumentException(
+          "Worker index must be in [0," + numberOfWorkers + "): " + workerIndex);
+    }
+    this.workerIndex = workerIndex;
+    this.numberOfWorkers = numberOfWorkers;
+  }
+
+  public int getWorkerIndex() {
+    return workerIndex;
+  }
+
+  public int getNumberOfWorkers() {
+    return numberOfWorkers;
+  }
+
+  /**
+   * @param index index of a user journey, virtual user or arrival
+   * @return true if this worker runs it
+   */
+  public boolean owns(long index) {
+    return index % numberOfWorkers == workerIndex;
+  }
+
+  /**
+   * Split a total across the workers, e.g. the thread pool size.
+   *
+   * @param total the total for all the workers
+   * @return the number of indexes in [0,total) that this worker owns
+   */
+  public int shareOf(int total) {
+    return total / numberOfWorkers + (workerIndex < total % numberOfWorkers ? 1 : 0);
+  }
+}
@@ -0,0 +1,89 @@
+package bio.terra.testrunner.runner.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An instance of this class specifies an open-model arrival rate for the user journeys of a single
+ * test script. When specified, the Test Runner fires user journeys at the target rate, regardless
+ * of how long earlier journeys take. This keeps the offered load fixed when the server slows down,
+ * instead of letting a slow server lower the load by occupying all the client threads.
+ */
+@SuppressFBWarnings(
+    value = "UWF_UNWRITTEN_PUBLIC_OR_PROTECTED_FIELD",
+    justification = "This POJO class is used for easy serialization to JSON using Jackson.")
+public class ArrivalRateSpecification implements SpecificationInterface {
+  public enum Profile {
+    CONSTANT, // evenly spaced arrivals at ratePerSecond
+    POISSON, // exponentially distributed inter-arrival times with mean 1/ratePerSecond
+    STEP, // evenly spaced arrivals at the rate of the current step
+    PHASES // arrivals follow the shape of each load phase in turn, results are bucketed by phase
+  }
+
+  public Profile profile = Profile.CONSTANT;
+  public double ratePerSecond;
+  public List<Step> steps = new ArrayList<>();
+  public List<LoadPhaseSpecification> phases = new ArrayList<>();
+
+  // (optional) seed for the POISSON profile random number generator, for reproducible schedules
+  public Long randomSeed;
+
+  ArrivalRateSpecification() {}
+
+  /** A single step of a STEP profile: hold the given rate for the given number of seconds. */
+  @SuppressFBWarnings(
+      value = "UWF_UNWRITTEN_PUBLIC_OR_PROTECTED_FIELD",
+      justification = "This POJO class is used for easy serialization to JSON using Jackson.")
+  public static class Step {
+    public double ratePerSecond;
+    public long durationSeconds;
+
+    Step() {}
+  }
+
+  /** Validate the arrival rate specification read in from the JSON file. */
+  public void validate() {
+    if (profile == null) {
+      throw new IllegalArgumentException("Arrival rate profile cannot be empty");
+    }
+    if (profile == Profile.STEP) {
+      if (steps == null || steps.isEmpty()) {
+        throw new IllegalArgumentException("Arrival rate STEP profile must define >=1 step");
+      }
+      boolean anyNonZeroRate = false;
+      for (Step step : steps) {
+        if (step.ratePerSecond < 0) {
+          throw new IllegalArgumentException("Arrival rate step rate per second must be >=0");
+        }
+        if (step.durationSeconds <= 0) {
+          throw new IllegalArgumentException("Arrival rate step duration must be >0");
+        }
+        anyNonZeroRate = anyNonZeroRate || step.ratePerSecond > 0;
+      }
+      if (!anyNonZeroRate) {
+        throw new IllegalArgumentException(
+            "Arrival rate STEP profile must have a step with rate >0");
+      }
+    } else if (profile == Profile.PHASES) {
+      if (phases == null || phases.isEmpty()) {
+        throw new IllegalArgumentException("Arrival rate PHASES profile must define >=1 phase");
+      }
+      Set<String> phaseNames = new HashSet<>();
+      for (int ctr = 0; ctr < phases.size(); ctr++) {
+        LoadPhaseSpecification phase = phases.get(ctr);
+        phase.validate();
+        if (phase.name == null || phase.name.isBlank()) {
+          phase.name = "phase" + (ctr + 1);
+        }
+        if (!phaseNames.add(phase.name)) {
+          throw new IllegalArgumentException("Load phase names must be unique: " + phase.name);
+        }
+      }
+    } else if (ratePerSecond <= 0) {
+      throw new IllegalArgumentException("Arrival rate per second must be >0");
+    }
+  }
+}
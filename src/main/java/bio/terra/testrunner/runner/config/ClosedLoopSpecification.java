@@ -0,0 +1,108 @@
+package bio.terra.testrunner.runner.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * An instance of this class specifies a closed-loop load for the user journeys of a single test
+ * script. When specified, a fixed set of virtual users (one per thread in the pool) each run the
+ * user journey over and over, pausing for a think time between iterations, until either the
+ * duration or the number of iterations is reached. This produces a steady-state load without
+ * creating a separate task for every user journey.
+ */
+@SuppressFBWarnings(
+    value = "UWF_UNWRITTEN_PUBLIC_OR_PROTECTED_FIELD",
+    justification = "This POJO class is used for easy serialization to JSON using Jackson.")
+public class ClosedLoopSpecification implements SpecificationInterface {
+  // at least one of these must be specified. if both are, the loop stops at whichever comes first
+  public Long durationSeconds;
+  public Integer iterationsPerUser;
+
+  // (optional) pause between the iterations of each virtual user. defaults to no pause
+  public ThinkTime thinkTime = new ThinkTime();
+
+  ClosedLoopSpecification() {}
+
+  /** The distribution of the pause between two iterations of a single virtual user. */
+  @SuppressFBWarnings(
+      value = "UWF_UNWRITTEN_PUBLIC_OR_PROTECTED_FIELD",
+      justification = "This POJO class is used for easy serialization to JSON using Jackson.")
+  public static class ThinkTime {
+    public enum Distribution {
+      NONE, // no pause
+      CONSTANT, // always meanMillis
+      UNIFORM, // uniformly distributed between minMillis and maxMillis
+      EXPONENTIAL // exponentially distributed with mean meanMillis, truncated at maxMillis
+    }
+
+    // exponential think times are truncated at this multiple of the mean, if maxMillis is not set
+    public static final long defaultExponentialTruncationFactor = 10;
+
+    public Distribution distribution = Distribution.NONE;
+    public long meanMillis;
+    public long minMillis;
+    public Long maxMillis;
+
+    // (optional) seed for the random number generators, for reproducible think times
+    public Long randomSeed;
+
+    ThinkTime() {}
+
+    /** Return the longest think time this distribution can produce, in milliseconds. */
+    public long upperBoundMillis() {
+      switch (distribution) {
+        case CONSTANT:
+          return meanMillis;
+        case UNIFORM:
+          return maxMillis;
+        case EXPONENTIAL:
+          return maxMillis != null ? maxMillis : meanMillis * defaultExponentialTruncationFactor;
+        default:
+          return 0;
+      }
+    }
+
+    /** Validate the think time specification read in from the JSON file. */
+    public void validate() {
+      if (distribution == null) {
+        throw new IllegalArgumentException("Think time distribution cannot be empty");
+      }
+      switch (distribution) {
+        case CONSTANT:
+        case EXPONENTIAL:
+          if (meanMillis <= 0) {
+            throw new IllegalArgumentException("Think time mean must be >0");
+          }
+          if (maxMillis != null && maxMillis < meanMillis) {
+            throw new IllegalArgumentException("Think time maximum must be >= the mean");
+          }
+          break;
+        case UNIFORM:
+          if (minMillis < 0 || maxMillis == null || maxMillis < minMillis) {
+            throw new IllegalArgumentException(
+                "Think time UNIFORM distribution requires 0 <= minMillis <= maxMillis");
+          }
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  /** Validate the closed-loop specification read in from the JSON file. */
+  public void validate() {
+    if (durationSeconds == null && iterationsPerUser == null) {
+      throw new IllegalArgumentException(
+          "Closed loop must specify a duration, a number of iterations per user, or both");
+    }
+    if (durationSeconds != null && durationSeconds <= 0) {
+      throw new IllegalArgumentException("Closed loop duration must be >0");
+    }
+    if (iterationsPerUser != null && iterationsPerUser <= 0) {
+      throw new IllegalArgumentException("Closed loop iterations per user must be >0");
+    }
+    if (thinkTime == null) {
+      throw new IllegalArgumentException("Closed loop think time cannot be empty");
+    }
+    thinkTime.validate();
+  }
+}
@@ -17,6 +17,20 @@ public class DisruptiveScriptSpecification implements SpecificationInterface {
   @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
   public Map<String, String> parametersMap;
 
+  // (optional) time from the start of the user journeys to the first disrupt call
+  public long initialDelaySeconds = 0;
+
+  // (optional) time between the starts of consecutive disrupt calls. if not set, disrupt is called
+  // once
+  public Long repeatIntervalSeconds;
+
+  // (optional) maximum number of disrupt calls, 0 to repeat until the user journeys finish. only
+  // used if repeatIntervalSeconds is set
+  public int repeatCount = 0;
+
+  // (optional) a random delay of up to this long is added to the start of each disrupt call
+  public long jitterSeconds = 0;
+
   private DisruptiveScript disruptiveScriptClassInstance;
 
   public static final String disruptiveScriptsPackage = "scripts.disruptivescripts";
@@ -27,7 +41,28 @@ public class DisruptiveScriptSpecification implements SpecificationInterface {
     return disruptiveScriptClassInstance;
   }
 
+  /**
+   * Get the number of times to call the disrupt method.
+   *
+   * @return the number of calls, 0 if unlimited
+   */
+  public int numberOfCalls() {
+    return repeatIntervalSeconds == null ? 1 : repeatCount;
+  }
+
   public void validate() {
+    if (initialDelaySeconds < 0) {
+      throw new IllegalArgumentException("Disruptive script initial delay must be >=0 seconds");
+    }
+    if (repeatIntervalSeconds != null && repeatIntervalSeconds <= 0) {
+      throw new IllegalArgumentException("Disruptive script repeat interval must be >0 seconds");
+    }
+    if (repeatCount < 0) {
+      throw new IllegalArgumentException("Disruptive script repeat count must be >=0");
+    }
+    if (jitterSeconds < 0) {
+      throw new IllegalArgumentException("Disruptive script jitter must be >=0 seconds");
+    }
     try {
       Class<?> scriptClassGeneric = Class.forName(disruptiveScriptsPackage + "." + name);
       Class<? extends DisruptiveScript> scriptClass =
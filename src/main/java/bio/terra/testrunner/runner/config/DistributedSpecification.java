@@ -0,0 +1,46 @@
+package bio.terra.testrunner.runner.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An instance of this class specifies that the user journeys of a test configuration are run by
+ * several worker processes instead of a single JVM. The Test Runner becomes the coordinator: it
+ * deploys the server, sets up Kubernetes and runs the disruptive script as usual, then starts the
+ * workers, which split the user journeys (or the arrival rate) of each test script between them and
+ * start them at the same time. When the workers finish, the coordinator merges their results into a
+ * single summary.
+ */
+@SuppressFBWarnings(
+    value = "UWF_UNWRITTEN_PUBLIC_OR_PROTECTED_FIELD",
+    justification = "This POJO class is used for easy serialization to JSON using Jackson.")
+public class DistributedSpecification implements SpecificationInterface {
+  public int numberOfWorkers;
+
+  // (optional) time between starting the workers and starting the user journeys. this should be
+  // long enough for every worker to start up and run the test script setup methods
+  public long startDelaySeconds = 30;
+
+  // (optional) time to wait for the workers to exit after the expected end of the user journeys,
+  // e.g. for the test script cleanup methods. workers still running after that are killed
+  public long workerTimeoutGraceSeconds = 300;
+
+  // (optional) options for the worker JVMs, e.g. -Xmx4g
+  public List<String> workerJvmOptions = new ArrayList<>();
+
+  DistributedSpecification() {}
+
+  /** Validate the distributed specification read in from the JSON file. */
+  public void validate() {
+    if (numberOfWorkers < 1) {
+      throw new IllegalArgumentException("Number of workers must be >=1");
+    }
+    if (startDelaySeconds < 0) {
+      throw new IllegalArgumentException("Worker start delay must be >=0 seconds");
+    }
+    if (workerTimeoutGraceSeconds < 0) {
+      throw new IllegalArgumentException("Worker timeout grace period must be >=0 seconds");
+    }
+  }
+}
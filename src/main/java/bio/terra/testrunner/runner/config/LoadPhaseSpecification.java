@@ -0,0 +1,108 @@
+package bio.terra.testrunner.runner.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * An instance of this class specifies a single phase of a PHASES arrival rate profile: a shape for
+ * the target arrival rate over the duration of the phase. The user journey results are also
+ * summarized per phase, so that one test run can step through several load levels.
+ */
+@SuppressFBWarnings(
+    value = "UWF_UNWRITTEN_PUBLIC_OR_PROTECTED_FIELD",
+    justification = "This POJO class is used for easy serialization to JSON using Jackson.")
+public class LoadPhaseSpecification implements SpecificationInterface {
+  public enum Shape {
+    CONSTANT, // hold ratePerSecond
+    LINEAR_RAMP, // change linearly from startRatePerSecond to endRatePerSecond
+    STAIRCASE, // numberOfSteps equal-length steps from startRatePerSecond to endRatePerSecond
+    SINE, // oscillate around ratePerSecond by amplitudePerSecond, with period periodSeconds
+    SPIKE_THEN_HOLD // spikeRatePerSecond for spikeDurationSeconds, then hold ratePerSecond
+  }
+
+  // (optional) name used to bucket the results. defaults to phase<index>, starting at 1
+  public String name;
+  public Shape shape = Shape.CONSTANT;
+  public long durationSeconds;
+
+  public double ratePerSecond;
+  public double startRatePerSecond;
+  public double endRatePerSecond;
+  public int numberOfSteps;
+  public double amplitudePerSecond;
+  public double periodSeconds;
+  public double spikeRatePerSecond;
+  public long spikeDurationSeconds;
+
+  LoadPhaseSpecification() {}
+
+  /**
+   * Return the target arrival rate at the given time into this phase. The rate is never negative.
+   *
+   * @param secondsIntoPhase offset from the beginning of this phase, in seconds
+   * @return the target arrival rate, in user journeys per second
+   */
+  public double ratePerSecondAt(double secondsIntoPhase) {
+    double fractionOfPhase = secondsIntoPhase / durationSeconds;
+    double rate;
+    switch (shape) {
+      case CONSTANT:
+        rate = ratePerSecond;
+        break;
+      case LINEAR_RAMP:
+        rate = startRatePerSecond + (endRatePerSecond - startRatePerSecond) * fractionOfPhase;
+        break;
+      case STAIRCASE:
+        int step = Math.min((int) (fractionOfPhase * numberOfSteps), numberOfSteps - 1);
+        rate =
+            numberOfSteps == 1
+                ? startRatePerSecond
+                : startRatePerSecond
+                    + (endRatePerSecond - startRatePerSecond) * step / (numberOfSteps - 1);
+        break;
+      case SINE:
+        rate =
+            ratePerSecond
+                + amplitudePerSecond * Math.sin(2 * Math.PI * secondsIntoPhase / periodSeconds);
+        break;
+      case SPIKE_THEN_HOLD:
+        rate = secondsIntoPhase < spikeDurationSeconds ? spikeRatePerSecond : ratePerSecond;
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported load phase shape: " + shape);
+    }
+    return Math.max(rate, 0);
+  }
+
+  /** Validate the load phase specification read in from the JSON file. */
+  public void validate() {
+    if (shape == null) {
+      throw new IllegalArgumentException("Load phase shape cannot be empty");
+    }
+    if (durationSeconds <= 0) {
+      throw new IllegalArgumentException("Load phase duration must be >0");
+    }
+    if (ratePerSecond < 0 || startRatePerSecond < 0 || endRatePerSecond < 0) {
+      throw new IllegalArgumentException("Load phase rates per second must be >=0");
+    }
+    switch (shape) {
+      case STAIRCASE:
+        if (numberOfSteps <= 0) {
+          throw new IllegalArgumentException("Load phase STAIRCASE number of steps must be >0");
+        }
+        break;
+      case SINE:
+        if (periodSeconds <= 0) {
+          throw new IllegalArgumentException("Load phase SINE period must be >0");
+        }
+        break;
+      case SPIKE_THEN_HOLD:
+        if (spikeRatePerSecond < 0 || spikeDurationSeconds <= 0) {
+          throw new IllegalArgumentException(
+              "Load phase SPIKE_THEN_HOLD spike rate must be >=0 and spike duration >0");
+        }
+        break;
+      default:
+        break;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package bio.terra.testrunner.runner.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * An instance of this class specifies a rule that stops a test run early. The rules are evaluated
+ * against the live progress snapshots, over a sliding window. When a rule trips, the Test Runner
+ * stops kicking off user journeys, lets the running ones finish, marks the test run as failed and
+ * writes out the partial results.
+ */
+@SuppressFBWarnings(
+    value = "UWF_UNWRITTEN_PUBLIC_OR_PROTECTED_FIELD",
+    justification = "This POJO class is used for easy serialization to JSON using Jackson.")
+public class StopConditionSpecification implements SpecificationInterface {
+  public enum Type {
+    ERROR_RATE, // percent of the user journeys completed in the window that threw > maxErrorRate
+    P99_LATENCY, // p99 corrected latency of the user journeys completed in the window > maxP99
+    THROUGHPUT_COLLAPSE // completions per second in the window < a fraction of the peak window
+  }
+
+  public Type type;
+  public long windowSeconds = 60;
+
+  // (optional) ignore the first part of the run, while the load is still warming up
+  public long gracePeriodSeconds = 0;
+
+  // (optional) only evaluate the test scripts with this name. defaults to all test scripts
+  public String testScriptName;
+
+  // (optional) minimum number of user journeys completed in the window before the rule can trip
+  public int minCompletionsInWindow = 10;
+
+  public double maxErrorRatePercent; // ERROR_RATE
+  public double maxP99Millis; // P99_LATENCY
+  public double minFractionOfPeakThroughput; // THROUGHPUT_COLLAPSE
+
+  StopConditionSpecification() {}
+
+  /** Validate the stop condition specification read in from the JSON file. */
+  public void validate() {
+    if (type == null) {
+      throw new IllegalArgumentException("Stop condition type cannot be empty");
+    }
+    if (windowSeconds <= 0) {
+      throw new IllegalArgumentException("Stop condition window must be >0 seconds");
+    }
+    if (gracePeriodSeconds < 0) {
+      throw new IllegalArgumentException("Stop condition grace period must be >=0 seconds");
+    }
+    if (minCompletionsInWindow < 0) {
+      throw new IllegalArgumentException("Stop condition minimum completions must be >=0");
+    }
+    switch (type) {
+      case ERROR_RATE:
+        if (maxErrorRatePercent < 0 || maxErrorRatePercent >= 100) {
+          throw new IllegalArgumentException(
+              "Stop condition maximum error rate must be in [0,100)");
+        }
+        break;
+      case P99_LATENCY:
+        if (maxP99Millis <= 0) {
+          throw new IllegalArgumentException("Stop condition maximum p99 latency must be >0");
+        }
+        break;
+      case THROUGHPUT_COLLAPSE:
+        if (minFractionOfPeakThroughput <= 0 || minFractionOfPeakThroughput >= 1) {
+          throw new IllegalArgumentException(
+              "Stop condition minimum fraction of peak throughput must be in (0,1)");
+        }
+        break;
+      default:
+        break;
+    }
+  }
+}
@@ -28,12 +28,30 @@ public class TestConfiguration implements SpecificationInterface {
   public List<TestUserSpecification> testUsers = new ArrayList<>();
   public DisruptiveScriptSpecification disruptiveScript;
 
+  // (optional) more disruptive scripts, each run concurrently on its own schedule
+  public List<DisruptiveScriptSpecification> disruptiveScripts = new ArrayList<>();
+
   @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
   public int maxRetries = 3; // default = 3 retries
 
   @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
   public long timeToWait = 2000; // default = 2000 ms
 
+  // width of the windows in the user journey time series output
+  public long timeSeriesWindowSeconds = 10;
+
+  // time between live progress snapshots written to the output directory, 0 to disable
+  public long progressIntervalSeconds = 10;
+
+  // (optional) port to serve the live progress snapshots on over HTTP
+  public Integer progressHttpPort;
+
+  // (optional) rules that stop the test run early, evaluated at every live progress snapshot
+  public List<StopConditionSpecification> stopConditions = new ArrayList<>();
+
+  // (optional) run the user journeys on several worker processes instead of this one
+  public DistributedSpecification distributed;
+
   public static final String resourceDirectory = "configs";
   public static final String serverFileEnvironmentVarName = "TEST_RUNNER_SERVER_SPECIFICATION_FILE";
 
@@ -94,6 +112,22 @@ public class TestConfiguration implements SpecificationInterface {
     return serverFileEnvironmentVarValue;
   }
 
+  /**
+   * Get the disruptive script and any additional disruptive scripts of this configuration.
+   *
+   * @return the disruptive script specifications, empty if there are none
+   */
+  public List<DisruptiveScriptSpecification> allDisruptiveScripts() {
+    List<DisruptiveScriptSpecification> allDisruptiveScripts = new ArrayList<>();
+    if (disruptiveScript != null) {
+      allDisruptiveScripts.add(disruptiveScript);
+    }
+    if (disruptiveScripts != null) {
+      allDisruptiveScripts.addAll(disruptiveScripts);
+    }
+    return allDisruptiveScripts;
+  }
+
   /**
    * Validate the object read in from the JSON file. This method also fills in additional properties
    * of the objects, for example by parsing the string values in the JSON object.
@@ -103,19 +137,45 @@ public class TestConfiguration implements SpecificationInterface {
     server.validate();
     kubernetes.validate();
     application.validate();
-    if (disruptiveScript != null) {
-      disruptiveScript.validate();
+    for (DisruptiveScriptSpecification scriptSpecification : allDisruptiveScripts()) {
+      scriptSpecification.validate();
 
       if (server.skipKubernetes
-          && disruptiveScript.disruptiveScriptClassInstance().manipulatesKubernetes()) {
+          && scriptSpecification.disruptiveScriptClassInstance().manipulatesKubernetes()) {
         throw new IllegalArgumentException(
             "The Disruptive Script class "
-                + disruptiveScript.name
+                + scriptSpecification.name
                 + " manipulates Kubernetes, but the server specification has disabled Kubernetes manipulations"
                 + " (see server.skipKubernetes flag).");
       }
     }
 
+    if (timeSeriesWindowSeconds <= 0) {
+      throw new IllegalArgumentException("Time series window must be >0 seconds");
+    }
+    if (progressIntervalSeconds < 0) {
+      throw new IllegalArgumentException("Progress interval must be >=0 seconds");
+    }
+    if (progressHttpPort != null && progressIntervalSeconds == 0) {
+      throw new IllegalArgumentException("Progress HTTP port requires a progress interval >0");
+    }
+    for (StopConditionSpecification stopCondition : stopConditions) {
+      stopCondition.validate();
+      if (progressIntervalSeconds == 0 || stopCondition.windowSeconds < progressIntervalSeconds) {
+        throw new IllegalArgumentException(
+            "Stop conditions require a progress interval >0 and <= the stop condition window");
+      }
+    }
+
+    if (distributed != null) {
+      distributed.validate();
+      if (resourceFileName == null) {
+        throw new IllegalArgumentException(
+            "A distributed test configuration must be read in from a resource file, so that the"
+                + " workers can read it in too");
+      }
+    }
+
     logger.debug("Validating the test script specifications");
     for (TestScriptSpecification testScript : testScripts) {
       testScript.validate();
@@ -19,6 +19,13 @@ public class TestScriptSpecification implements SpecificationInterface {
   public long expectedTimeForEach;
   public String expectedTimeForEachUnit;
 
+  // (optional) open-model arrival rate. if not specified, all the user journeys are queued at once
+  public ArrivalRateSpecification arrivalRate;
+
+  // (optional) closed-loop load: each thread in the pool is a virtual user that runs the user
+  // journey over and over. if specified, numberOfUserJourneyThreadsToRun is ignored
+  public ClosedLoopSpecification closedLoop;
+
   @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
   public Map<String, String> parametersMap;
 
@@ -51,6 +58,17 @@ public class TestScriptSpecification implements SpecificationInterface {
 
     expectedTimeForEachUnitObj = TimeUnit.valueOf(expectedTimeForEachUnit);
 
+    if (arrivalRate != null) {
+      arrivalRate.validate();
+    }
+    if (closedLoop != null) {
+      if (arrivalRate != null) {
+        throw new IllegalArgumentException(
+            "Test script cannot specify both an arrival rate and a closed loop");
+      }
+      closedLoop.validate();
+    }
+
     try {
       Class<?> scriptClassGeneric = Class.forName(scriptsPackage + "." + name);
       Class<? extends TestScript> scriptClass = (Class<? extends TestScript>) scriptClassGeneric;
@@ -5,7 +5,9 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,6 +20,10 @@ public class TestSuite implements SpecificationInterface {
       serverSpecificationFile; // overrides the server specification for all test configurations
   public List<String> testConfigurationFiles;
 
+  // (optional) maximum number of test configurations to run at the same time. test configurations
+  // that deploy the server or manipulate the same Kubernetes namespace still run one at a time
+  public int maxConcurrentTestConfigurations = 1;
+
   ServerSpecification server;
   public List<TestConfiguration> testConfigurations = new ArrayList<>();
 
@@ -81,9 +87,23 @@ public class TestSuite implements SpecificationInterface {
    * of the objects, for example by parsing the string values in the JSON object.
    */
   public void validate() {
+    if (maxConcurrentTestConfigurations < 1) {
+      throw new IllegalArgumentException("Maximum concurrent test configurations must be >=1");
+    }
+
     logger.info("Validating the test configurations");
+    Set<Integer> progressHttpPorts = new HashSet<>();
     for (TestConfiguration testConfig : testConfigurations) {
       testConfig.validate();
+
+      // test configurations running at the same time can't serve their progress on the same port
+      if (maxConcurrentTestConfigurations > 1
+          && testConfig.progressHttpPort != null
+          && !progressHttpPorts.add(testConfig.progressHttpPort)) {
+        throw new IllegalArgumentException(
+            "Test configurations that run in parallel must use different progress HTTP ports: "
+                + testConfig.progressHttpPort);
+      }
     }
   }
 }
@@ -71,7 +71,7 @@ public class CompressDirectoryToBucket extends UploadScript {
     logger.info("Compressed directory written locally: {}", archiveFile.toAbsolutePath());
 
     // upload the archive file to a bucket
-    Storage storageClient = StorageUtils.getClientForServiceAccount(uploaderServiceAccount);
+    Storage storageClient = StorageUtils.getSharedClientForServiceAccount(uploaderServiceAccount);
     BlobInfo blobInfo =
         BlobInfo.newBuilder(bucketPath.replace("gs://", ""), archiveFileName)
             .setContentType("application/gzip")
@@ -79,7 +79,7 @@ public class SummariesToBigQuery extends UploadScript {
     // get a BigQuery client object
     logger.debug("BigQuery project_id:dataset_name: {}:{}", projectId, datasetName);
     BigQuery bigQueryClient =
-        BigQueryUtils.getClientForServiceAccount(uploaderServiceAccount, projectId);
+        BigQueryUtils.getSharedClientForServiceAccount(uploaderServiceAccount, projectId);
     // read in TestConfiguration TestRunSummary, and array of
     // MeasurementCollectionScript.MeasurementResultSummary objects
     renderedTestConfiguration = TestRunner.getRenderedTestConfiguration(outputDirectory);
@@ -0,0 +1,53 @@
+package bio.terra.testrunner.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.HdrHistogram.Histogram;
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.junit.jupiter.api.Test;
+
+class BasicStatisticsTest {
+  @Test
+  void emptyHistogramMatchesEmptyDescriptiveStatistics() {
+    BasicStatistics fromHistogram =
+        BasicStatistics.calculateStandardStatistics(new Histogram(3), 1e6);
+    BasicStatistics fromDescriptive =
+        BasicStatistics.calculateStandardStatistics(new DescriptiveStatistics());
+
+    assertTrue(Double.isNaN(fromHistogram.min));
+    assertTrue(Double.isNaN(fromHistogram.max));
+    assertTrue(Double.isNaN(fromHistogram.mean));
+    assertTrue(Double.isNaN(fromHistogram.standardDeviation));
+    assertTrue(Double.isNaN(fromHistogram.median));
+    assertTrue(Double.isNaN(fromHistogram.percentile9999));
+    assertTrue(Double.isNaN(fromDescriptive.median));
+    assertEquals(fromDescriptive.sum, fromHistogram.sum);
+  }
+
+  @Test
+  void exactSumGivesExactMean() {
+    Histogram histogram = new Histogram(3);
+    long sum = 0;
+    for (long value = 1_000_001; value <= 1_001_000; value++) {
+      histogram.recordValue(value);
+      sum += value;
+    }
+    BasicStatistics stats = BasicStatistics.calculateStandardStatistics(histogram, sum, 1000);
+
+    assertEquals(sum / 1000.0, stats.sum);
+    assertEquals(1000.5005, stats.mean, 1e-9);
+    // the percentiles are only as accurate as the histogram
+    assertEquals(1000.5, stats.median, 1000.5 * 0.001);
+  }
+
+  @Test
+  void approximateSumFromTheHistogram() {
+    Histogram histogram = new Histogram(3);
+    histogram.recordValueWithCount(2000, 10);
+    BasicStatistics stats = BasicStatistics.calculateStandardStatistics(histogram, 1000);
+
+    assertEquals(20, stats.sum, 20 * 0.001);
+    assertEquals(2, stats.mean, 2 * 0.001);
+  }
+}
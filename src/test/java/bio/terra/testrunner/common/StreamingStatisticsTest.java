@@ -0,0 +1,123 @@
+package bio.terra.testrunner.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.junit.jupiter.api.Test;
+
+class StreamingStatisticsTest {
+  // the histograms keep 3 significant digits, the other statistics are exact
+  private static final double percentileTolerance = 0.01;
+
+  private static StreamingStatistics streamingStatistics(double... values) {
+    StreamingStatistics stats = new StreamingStatistics();
+    for (double value : values) {
+      stats.addValue(value);
+    }
+    return stats;
+  }
+
+  private static double[] range(int first, int last) {
+    double[] values = new double[last - first + 1];
+    for (int ctr = 0; ctr < values.length; ctr++) {
+      values[ctr] = first + ctr;
+    }
+    return values;
+  }
+
+  @Test
+  void exactStatisticsMatchDescriptiveStatistics() {
+    double[] values = {3.5, -12.25, 0, 7, 1e6, -0.001, 42, 42};
+    BasicStatistics stats = streamingStatistics(values).calculateStandardStatistics();
+    DescriptiveStatistics expected = new DescriptiveStatistics(values);
+
+    assertEquals(expected.getMin(), stats.min);
+    assertEquals(expected.getMax(), stats.max);
+    assertEquals(expected.getSum(), stats.sum, 1e-9);
+    assertEquals(expected.getMean(), stats.mean, 1e-9);
+    assertEquals(expected.getStandardDeviation(), stats.standardDeviation, 1e-6);
+  }
+
+  @Test
+  void percentilesOfPositiveValues() {
+    BasicStatistics stats = streamingStatistics(range(1, 1000)).calculateStandardStatistics();
+
+    assertEquals(500, stats.median, 500 * percentileTolerance);
+    assertEquals(900, stats.percentile90, 900 * percentileTolerance);
+    assertEquals(990, stats.percentile99, 990 * percentileTolerance);
+  }
+
+  @Test
+  void percentilesOfNegativeValues() {
+    BasicStatistics stats = streamingStatistics(range(-1000, -1)).calculateStandardStatistics();
+
+    // the median magnitude, and the 10% of values closest to 0
+    assertEquals(-500, stats.median, 500 * percentileTolerance);
+    assertEquals(-100, stats.percentile90, 100 * percentileTolerance + 1);
+    assertEquals(-10, stats.percentile99, 10 * percentileTolerance + 1);
+  }
+
+  @Test
+  void percentilesStitchNegativeAndPositiveValues() {
+    // 50 negative values then 150 positive ones, so the percentiles fall on both sides of 0
+    double[] values = new double[200];
+    System.arraycopy(range(-50, -1), 0, values, 0, 50);
+    System.arraycopy(range(1, 150), 0, values, 50, 150);
+    StreamingStatistics streamingStatistics = streamingStatistics(values);
+    BasicStatistics stats = streamingStatistics.calculateStandardStatistics();
+
+    // the 100th value is the 50th positive one
+    assertTrue(stats.median > 0, "median: " + stats.median);
+    assertEquals(50, stats.median, 1);
+    assertEquals(130, stats.percentile90, 1);
+    assertEquals(148, stats.percentile99, 1);
+    assertEquals(-50, stats.min);
+    assertEquals(150, stats.max);
+  }
+
+  @Test
+  void medianOfValuesAroundZero() {
+    BasicStatistics stats = streamingStatistics(range(-100, 100)).calculateStandardStatistics();
+
+    assertEquals(0, stats.median, 1);
+    assertEquals(81, stats.percentile90, 1);
+    assertEquals(0, stats.mean, 1e-9);
+  }
+
+  @Test
+  void nanAndInfiniteValuesAreSkipped() {
+    StreamingStatistics streamingStatistics =
+        streamingStatistics(
+            1, Double.NaN, 2, Double.POSITIVE_INFINITY, 3, Double.NEGATIVE_INFINITY);
+    BasicStatistics stats = streamingStatistics.calculateStandardStatistics();
+
+    assertEquals(3, streamingStatistics.getCount());
+    assertEquals(1, stats.min);
+    assertEquals(3, stats.max);
+    assertEquals(2, stats.mean);
+    assertEquals(6, stats.sum);
+  }
+
+  @Test
+  void singleValueHasZeroStandardDeviation() {
+    BasicStatistics stats = streamingStatistics(-7).calculateStandardStatistics();
+
+    assertEquals(0, stats.standardDeviation);
+    assertEquals(-7, stats.median, 7 * percentileTolerance);
+  }
+
+  @Test
+  void noValuesMeansNaN() {
+    StreamingStatistics streamingStatistics = new StreamingStatistics();
+    BasicStatistics stats = streamingStatistics.calculateStandardStatistics();
+
+    assertEquals(0, streamingStatistics.getCount());
+    assertTrue(Double.isNaN(stats.min));
+    assertTrue(Double.isNaN(stats.max));
+    assertTrue(Double.isNaN(stats.mean));
+    assertTrue(Double.isNaN(stats.standardDeviation));
+    assertTrue(Double.isNaN(stats.median));
+    assertTrue(Double.isNaN(stats.percentile99));
+  }
+}
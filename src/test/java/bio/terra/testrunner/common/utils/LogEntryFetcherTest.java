@@ -0,0 +1,252 @@
+package bio.terra.testrunner.common.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.ApiException;
+import com.google.logging.v2.ListLogEntriesResponse;
+import com.google.logging.v2.LogEntry;
+import com.google.logging.v2.ProjectName;
+import io.grpc.Status;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class LogEntryFetcherTest {
+  private static final ProjectName project = ProjectName.of("test-project");
+  private static final String filter = "resource.type=\"k8s_container\"";
+
+  // matches the time range that the fetcher adds to the filter of each slice
+  private static final Pattern slicePattern =
+      Pattern.compile("timestamp>=\"([^\"]+)\" AND timestamp(<=?)\"([^\"]+)\"");
+
+  /** The time range of a single slice, parsed back out of its filter. */
+  private static class Slice {
+    final long startMS;
+    final long endMS;
+    final boolean endInclusive;
+
+    Slice(String sliceFilter) {
+      Matcher matcher = slicePattern.matcher(sliceFilter);
+      assertTrue(matcher.find(), "Slice filter has no time range: " + sliceFilter);
+      startMS = Instant.parse(matcher.group(1)).toEpochMilli();
+      endInclusive = matcher.group(2).equals("<=");
+      endMS = Instant.parse(matcher.group(3)).toEpochMilli();
+    }
+  }
+
+  /** Fetch with a page source that returns a single empty page, and return the slices. */
+  private static List<Slice> fetchSlices(long sliceSeconds, long startTimeMS, long endTimeMS)
+      throws Exception {
+    List<String> sliceFilters = Collections.synchronizedList(new ArrayList<>());
+    new LogEntryFetcher(
+            request -> {
+              sliceFilters.add(request.getFilter());
+              return ListLogEntriesResponse.getDefaultInstance();
+            })
+        .setSliceSeconds(sliceSeconds)
+        .fetch(project, filter, startTimeMS, endTimeMS, entry -> {});
+
+    List<Slice> slices = new ArrayList<>();
+    for (String sliceFilter : sliceFilters) {
+      assertTrue(sliceFilter.startsWith("(" + filter + ") AND "), sliceFilter);
+      slices.add(new Slice(sliceFilter));
+    }
+    slices.sort((slice1, slice2) -> Long.compare(slice1.startMS, slice2.startMS));
+    return slices;
+  }
+
+  /** Check that the slices cover the time range exactly once, with no gaps or overlaps. */
+  private static void assertSlicesCover(List<Slice> slices, long startTimeMS, long endTimeMS) {
+    assertEquals(startTimeMS, slices.get(0).startMS, "first slice starts at the start time");
+    for (int ctr = 0; ctr < slices.size() - 1; ctr++) {
+      Slice slice = slices.get(ctr);
+      assertTrue(!slice.endInclusive, "only the last slice includes its end time");
+      assertEquals(slice.endMS, slices.get(ctr + 1).startMS, "slices meet without a gap");
+    }
+    Slice lastSlice = slices.get(slices.size() - 1);
+    assertTrue(lastSlice.endInclusive, "the last slice includes the end time");
+    assertEquals(endTimeMS, lastSlice.endMS, "last slice ends at the end time");
+  }
+
+  @Test
+  void slicesCoverUnevenTimeRange() throws Exception {
+    long startTimeMS = Instant.parse("2022-01-01T00:00:00Z").toEpochMilli();
+    long endTimeMS = startTimeMS + 700_000;
+    List<Slice> slices = fetchSlices(300, startTimeMS, endTimeMS);
+
+    assertEquals(3, slices.size());
+    assertSlicesCover(slices, startTimeMS, endTimeMS);
+    assertEquals(startTimeMS + 600_000, slices.get(2).startMS);
+  }
+
+  @Test
+  void slicesCoverTimeRangeEndingOnSliceBoundary() throws Exception {
+    long startTimeMS = Instant.parse("2022-01-01T00:00:00Z").toEpochMilli();
+    long endTimeMS = startTimeMS + 600_000;
+    List<Slice> slices = fetchSlices(300, startTimeMS, endTimeMS);
+
+    // the end time itself is only included by the last slice, so it is not fetched twice
+    assertSlicesCover(slices, startTimeMS, endTimeMS);
+  }
+
+  @Test
+  void singleSliceIncludesBothEnds() throws Exception {
+    long startTimeMS = Instant.parse("2022-01-01T00:00:00Z").toEpochMilli();
+    List<Slice> slices = fetchSlices(300, startTimeMS, startTimeMS + 1000);
+
+    assertEquals(1, slices.size());
+    assertSlicesCover(slices, startTimeMS, startTimeMS + 1000);
+  }
+
+  @Test
+  void endTimeBeforeStartTimeIsRejected() {
+    LogEntryFetcher fetcher =
+        new LogEntryFetcher(request -> ListLogEntriesResponse.getDefaultInstance());
+    assertThrows(
+        IllegalArgumentException.class, () -> fetcher.fetch(project, filter, 1000, 0, entry -> {}));
+  }
+
+  @Test
+  void walksPageTokens() throws Exception {
+    List<String> pageTokens = new ArrayList<>();
+    LogEntryFetcher fetcher =
+        new LogEntryFetcher(
+            request -> {
+              pageTokens.add(request.getPageToken());
+              switch (request.getPageToken()) {
+                case "":
+                  return page("page2", "a", "b");
+                case "page2":
+                  return page("page3", "c");
+                case "page3":
+                  return page("", "d", "e");
+                default:
+                  throw new IllegalStateException("Unexpected page token");
+              }
+            });
+
+    List<String> insertIds = new ArrayList<>();
+    long numEntries =
+        fetcher.fetch(project, filter, 0, 1000, entry -> insertIds.add(entry.getInsertId()));
+
+    assertEquals(List.of("", "page2", "page3"), pageTokens);
+    assertEquals(List.of("a", "b", "c", "d", "e"), insertIds);
+    assertEquals(5, numEntries);
+  }
+
+  @Test
+  void retriesWhenQuotaIsExhausted() throws Exception {
+    AtomicInteger numCalls = new AtomicInteger();
+    LogEntryFetcher fetcher =
+        new LogEntryFetcher(
+                request -> {
+                  if (numCalls.incrementAndGet() <= 2) {
+                    throw apiException(Status.Code.RESOURCE_EXHAUSTED);
+                  }
+                  return page("", "a");
+                })
+            .setRetries(3, 0);
+
+    List<String> insertIds = new ArrayList<>();
+    fetcher.fetch(project, filter, 0, 1000, entry -> insertIds.add(entry.getInsertId()));
+
+    assertEquals(3, numCalls.get());
+    assertEquals(List.of("a"), insertIds);
+  }
+
+  @Test
+  void givesUpAfterMaxRetries() {
+    AtomicInteger numCalls = new AtomicInteger();
+    LogEntryFetcher fetcher =
+        new LogEntryFetcher(
+                request -> {
+                  numCalls.incrementAndGet();
+                  throw apiException(Status.Code.RESOURCE_EXHAUSTED);
+                })
+            .setRetries(2, 0);
+
+    ApiException apiEx =
+        assertThrows(
+            ApiException.class, () -> fetcher.fetch(project, filter, 0, 1000, entry -> {}));
+
+    assertEquals(
+        Status.Code.RESOURCE_EXHAUSTED,
+        ((GrpcStatusCode) apiEx.getStatusCode()).getTransportCode());
+    assertEquals(3, numCalls.get(), "the first attempt and 2 retries");
+  }
+
+  @Test
+  void doesNotRetryOtherErrors() {
+    AtomicInteger numCalls = new AtomicInteger();
+    LogEntryFetcher fetcher =
+        new LogEntryFetcher(
+                request -> {
+                  numCalls.incrementAndGet();
+                  throw apiException(Status.Code.INVALID_ARGUMENT);
+                })
+            .setRetries(2, 0);
+
+    assertThrows(ApiException.class, () -> fetcher.fetch(project, filter, 0, 1000, entry -> {}));
+    assertEquals(1, numCalls.get());
+  }
+
+  @Test
+  void callsConsumerOneThreadAtATime() throws Exception {
+    int numSlices = 20;
+    int entriesPerSlice = 50;
+    LogEntryFetcher fetcher =
+        new LogEntryFetcher(
+                request -> {
+                  String[] insertIds = new String[entriesPerSlice];
+                  for (int ctr = 0; ctr < entriesPerSlice; ctr++) {
+                    insertIds[ctr] = request.getFilter() + ctr;
+                  }
+                  return page("", insertIds);
+                })
+            .setMaxParallelism(8)
+            .setSliceSeconds(1);
+
+    // the consumer is not thread-safe, and checks that no other thread is inside it
+    AtomicInteger numInsideConsumer = new AtomicInteger();
+    AtomicInteger maxInsideConsumer = new AtomicInteger();
+    List<LogEntry> entries = new ArrayList<>();
+    long numEntries =
+        fetcher.fetch(
+            project,
+            filter,
+            0,
+            numSlices * 1000 - 1,
+            entry -> {
+              maxInsideConsumer.accumulateAndGet(numInsideConsumer.incrementAndGet(), Math::max);
+              entries.add(entry);
+              Thread.yield();
+              numInsideConsumer.decrementAndGet();
+            });
+
+    assertEquals(1, maxInsideConsumer.get());
+    assertEquals(numSlices * entriesPerSlice, numEntries);
+    assertEquals(numSlices * entriesPerSlice, entries.size());
+  }
+
+  private static ListLogEntriesResponse page(String nextPageToken, String... insertIds) {
+    ListLogEntriesResponse.Builder page =
+        ListLogEntriesResponse.newBuilder().setNextPageToken(nextPageToken);
+    for (String insertId : insertIds) {
+      page.addEntries(LogEntry.newBuilder().setInsertId(insertId));
+    }
+    return page.build();
+  }
+
+  private static ApiException apiException(Status.Code code) {
+    return new ApiException(
+        new RuntimeException("Fake error: " + code), GrpcStatusCode.of(code), false);
+  }
+}
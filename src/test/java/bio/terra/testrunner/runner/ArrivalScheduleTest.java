@@ -0,0 +1,179 @@
+package bio.terra.testrunner.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.testrunner.runner.config.ArrivalRateSpecification;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ArrivalScheduleTest {
+  private static final ObjectMapper objectMapper =
+      new ObjectMapper().enable(JsonParser.Feature.ALLOW_SINGLE_QUOTES);
+
+  // the offsets are rounded down to whole nanoseconds
+  private static final double toleranceSeconds = 1e-6;
+
+  private static ArrivalSchedule schedule(String json) throws Exception {
+    ArrivalRateSpecification specification =
+        objectMapper.readValue(json, ArrivalRateSpecification.class);
+    specification.validate();
+    return new ArrivalSchedule(specification);
+  }
+
+  /** Take arrivals from the schedule until it ends, up to the given maximum. */
+  private static List<Double> arrivalSeconds(ArrivalSchedule schedule, int maxArrivals) {
+    List<Double> arrivals = new ArrayList<>();
+    for (int ctr = 0; ctr < maxArrivals; ctr++) {
+      long offsetNS = schedule.nextArrivalOffsetNS();
+      if (offsetNS < 0) {
+        break;
+      }
+      arrivals.add((double) offsetNS / TimeUnit.SECONDS.toNanos(1));
+    }
+    return arrivals;
+  }
+
+  private static void assertArrivals(List<Double> expected, List<Double> actual) {
+    assertEquals(expected.size(), actual.size(), "number of arrivals: " + actual);
+    for (int ctr = 0; ctr < expected.size(); ctr++) {
+      assertEquals(expected.get(ctr), actual.get(ctr), toleranceSeconds, "arrival " + ctr);
+    }
+  }
+
+  @Test
+  void constantArrivalsAreEvenlySpaced() throws Exception {
+    ArrivalSchedule schedule = schedule("{'profile':'CONSTANT','ratePerSecond':4}");
+    assertArrivals(List.of(0.0, 0.25, 0.5, 0.75, 1.0), arrivalSeconds(schedule, 5));
+  }
+
+  @Test
+  void poissonArrivalsHaveTheTargetMeanRate() throws Exception {
+    int numArrivals = 20000;
+    List<Double> arrivals =
+        arrivalSeconds(
+            schedule("{'profile':'POISSON','ratePerSecond':50,'randomSeed':12345}"), numArrivals);
+
+    for (int ctr = 1; ctr < arrivals.size(); ctr++) {
+      assertTrue(arrivals.get(ctr) >= arrivals.get(ctr - 1), "arrivals move forward");
+    }
+    double meanInterArrivalSeconds = arrivals.get(numArrivals - 1) / (numArrivals - 1);
+    assertEquals(1.0 / 50, meanInterArrivalSeconds, 0.05 / 50);
+  }
+
+  @Test
+  void poissonArrivalsWithSeedAreReproducible() throws Exception {
+    String json = "{'profile':'POISSON','ratePerSecond':10,'randomSeed':42}";
+    assertEquals(arrivalSeconds(schedule(json), 100), arrivalSeconds(schedule(json), 100));
+  }
+
+  @Test
+  void stepArrivalsSkipZeroRateSteps() throws Exception {
+    ArrivalSchedule schedule =
+        schedule(
+            "{'profile':'STEP','steps':["
+                + "{'ratePerSecond':2,'durationSeconds':1},"
+                + "{'ratePerSecond':0,'durationSeconds':2},"
+                + "{'ratePerSecond':1,'durationSeconds':2}]}");
+    assertArrivals(List.of(0.0, 0.5, 3.0, 4.0), arrivalSeconds(schedule, 100));
+  }
+
+  @Test
+  void constantPhaseArrivals() throws Exception {
+    ArrivalSchedule schedule =
+        schedule(
+            "{'profile':'PHASES','phases':["
+                + "{'name':'steady','shape':'CONSTANT','ratePerSecond':2,'durationSeconds':2}]}");
+    // an arrival is due each time the integral of the rate adds up to one more
+    assertArrivals(List.of(0.5, 1.0, 1.5, 2.0), arrivalSeconds(schedule, 100));
+  }
+
+  @Test
+  void linearRampPhaseArrivals() throws Exception {
+    ArrivalSchedule schedule =
+        schedule(
+            "{'profile':'PHASES','phases':[{'shape':'LINEAR_RAMP',"
+                + "'startRatePerSecond':0,'endRatePerSecond':2,'durationSeconds':10}]}");
+    // the integral of the rate up to t is t^2/10, so arrival n is at sqrt(10n)
+    List<Double> expected = new ArrayList<>();
+    for (int arrival = 1; arrival <= 10; arrival++) {
+      expected.add(Math.sqrt(10.0 * arrival));
+    }
+    assertArrivals(expected, arrivalSeconds(schedule, 100));
+  }
+
+  @Test
+  void staircasePhaseArrivals() throws Exception {
+    ArrivalSchedule schedule =
+        schedule(
+            "{'profile':'PHASES','phases':[{'shape':'STAIRCASE','numberOfSteps':2,"
+                + "'startRatePerSecond':1,'endRatePerSecond':3,'durationSeconds':2}]}");
+    assertArrivals(List.of(1.0, 1 + 1 / 3.0, 1 + 2 / 3.0, 2.0), arrivalSeconds(schedule, 100));
+  }
+
+  @Test
+  void spikeThenHoldPhaseArrivals() throws Exception {
+    ArrivalSchedule schedule =
+        schedule(
+            "{'profile':'PHASES','phases':[{'shape':'SPIKE_THEN_HOLD','spikeRatePerSecond':4,"
+                + "'spikeDurationSeconds':1,'ratePerSecond':1,'durationSeconds':3}]}");
+    assertArrivals(List.of(0.25, 0.5, 0.75, 1.0, 2.0, 3.0), arrivalSeconds(schedule, 100));
+  }
+
+  @Test
+  void sinePhaseArrivalsAverageToTheMeanRate() throws Exception {
+    ArrivalSchedule schedule =
+        schedule(
+            "{'profile':'PHASES','phases':[{'shape':'SINE','ratePerSecond':10,"
+                + "'amplitudePerSecond':5,'periodSeconds':10,'durationSeconds':10}]}");
+    List<Double> arrivals = arrivalSeconds(schedule, 1000);
+
+    // over a whole period the sine averages out, so the count is the mean rate times the period
+    assertEquals(100, arrivals.size(), 1);
+    // the rate peaks in the first half of the period, so most of the arrivals fall in it
+    long firstHalf = arrivals.stream().filter(seconds -> seconds < 5).count();
+    assertTrue(firstHalf > 60, "arrivals in the first half period: " + firstHalf);
+  }
+
+  @Test
+  void zeroRatePhasesAreSkippedQuickly() throws Exception {
+    ArrivalSchedule schedule =
+        schedule(
+            "{'profile':'PHASES','phases':["
+                + "{'name':'before','ratePerSecond':1,'durationSeconds':2},"
+                + "{'name':'idle','ratePerSecond':0,'durationSeconds':1000000},"
+                + "{'name':'after','ratePerSecond':1,'durationSeconds':2}]}");
+    List<Double> arrivals =
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> arrivalSeconds(schedule, 100));
+
+    assertArrivals(List.of(1.0, 2.0, 1000003.0, 1000004.0), arrivals);
+  }
+
+  @Test
+  void phaseAtReturnsThePhaseContainingTheOffset() throws Exception {
+    ArrivalSchedule schedule =
+        schedule(
+            "{'profile':'PHASES','phases':["
+                + "{'name':'warmup','ratePerSecond':1,'durationSeconds':10},"
+                + "{'ratePerSecond':5,'durationSeconds':20}]}");
+    long nanosPerSecond = TimeUnit.SECONDS.toNanos(1);
+
+    assertEquals("warmup", schedule.phaseAt(0));
+    assertEquals("warmup", schedule.phaseAt(10 * nanosPerSecond - 1));
+    // unnamed phases are named by their position, starting at 1
+    assertEquals("phase2", schedule.phaseAt(10 * nanosPerSecond));
+    assertNull(schedule.phaseAt(30 * nanosPerSecond));
+  }
+
+  @Test
+  void phaseAtIsNullWithoutPhases() throws Exception {
+    assertNull(schedule("{'profile':'CONSTANT','ratePerSecond':1}").phaseAt(0));
+  }
+}
@@ -0,0 +1,147 @@
+package bio.terra.testrunner.runner;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.testrunner.common.utils.HistogramUtils;
+import bio.terra.testrunner.runner.config.StopConditionSpecification;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+class StopConditionEvaluatorTest {
+  private static final ObjectMapper objectMapper =
+      new ObjectMapper().enable(JsonParser.Feature.ALLOW_SINGLE_QUOTES);
+
+  private static StopConditionEvaluator evaluator(String json) throws Exception {
+    StopConditionSpecification stopCondition =
+        objectMapper.readValue(json, StopConditionSpecification.class);
+    stopCondition.validate();
+    return new StopConditionEvaluator(List.of(stopCondition));
+  }
+
+  /** A progress snapshot of a single test script, covering a 10 second interval. */
+  private static TestRunProgress progress(
+      double secondsSinceStart, int completions, int errors, int inFlight) {
+    TestScriptProgress testScript = new TestScriptProgress();
+    testScript.testScriptName = "MyScript";
+    testScript.testScriptDescription = "my script";
+    testScript.intervalSeconds = 10;
+    testScript.intervalCompletions = completions;
+    testScript.intervalErrors = errors;
+    testScript.numRunning = inFlight;
+
+    TestRunProgress progress = new TestRunProgress();
+    progress.secondsSinceStartUserJourneys = secondsSinceStart;
+    progress.testScripts = List.of(testScript);
+    return progress;
+  }
+
+  @Test
+  void errorRateTripsAboveTheThreshold() throws Exception {
+    StopConditionEvaluator evaluator =
+        evaluator("{'type':'ERROR_RATE','windowSeconds':10,'maxErrorRatePercent':10}");
+
+    assertNull(evaluator.evaluate(progress(10, 20, 2, 5)), "10% is not above the threshold");
+    String tripReason = evaluator.evaluate(progress(20, 20, 3, 5));
+    assertNotNull(tripReason);
+    assertTrue(tripReason.contains("ERROR_RATE") && tripReason.contains("my script"), tripReason);
+  }
+
+  @Test
+  void errorRateNeedsTheMinimumCompletions() throws Exception {
+    StopConditionEvaluator evaluator =
+        evaluator(
+            "{'type':'ERROR_RATE','windowSeconds':10,'maxErrorRatePercent':10,"
+                + "'minCompletionsInWindow':10}");
+
+    assertNull(evaluator.evaluate(progress(10, 9, 9, 5)));
+    assertNotNull(evaluator.evaluate(progress(20, 10, 9, 5)));
+  }
+
+  @Test
+  void errorRateIsMeasuredOverTheWindow() throws Exception {
+    StopConditionEvaluator evaluator =
+        evaluator("{'type':'ERROR_RATE','windowSeconds':20,'maxErrorRatePercent':10}");
+
+    assertNull(evaluator.evaluate(progress(10, 20, 1, 5)));
+    // 15% in the latest snapshot, but 10% over the window
+    assertNull(evaluator.evaluate(progress(20, 20, 3, 5)));
+    // the first snapshot has dropped out of the window
+    assertNotNull(evaluator.evaluate(progress(30, 20, 3, 5)));
+  }
+
+  @Test
+  void gracePeriodDelaysTheStopCondition() throws Exception {
+    StopConditionEvaluator evaluator =
+        evaluator(
+            "{'type':'ERROR_RATE','windowSeconds':10,'maxErrorRatePercent':10,"
+                + "'gracePeriodSeconds':30}");
+
+    assertNull(evaluator.evaluate(progress(10, 20, 20, 5)));
+    assertNull(evaluator.evaluate(progress(20, 20, 20, 5)));
+    assertNotNull(evaluator.evaluate(progress(30, 20, 20, 5)));
+  }
+
+  @Test
+  void stopConditionOnlyAppliesToItsTestScript() throws Exception {
+    StopConditionEvaluator evaluator =
+        evaluator(
+            "{'type':'ERROR_RATE','windowSeconds':10,'maxErrorRatePercent':10,"
+                + "'testScriptName':'OtherScript'}");
+
+    assertNull(evaluator.evaluate(progress(10, 20, 20, 5)));
+  }
+
+  @Test
+  void p99LatencyTripsAboveTheThreshold() throws Exception {
+    StopConditionEvaluator evaluator =
+        evaluator("{'type':'P99_LATENCY','windowSeconds':10,'maxP99Millis':200}");
+
+    TestRunProgress fastProgress = progress(10, 100, 0, 5);
+    fastProgress.testScripts.get(0).intervalLatencyHistogram = latencyHistogram(100, 100);
+    assertNull(evaluator.evaluate(fastProgress));
+
+    TestRunProgress slowProgress = progress(20, 100, 0, 5);
+    slowProgress.testScripts.get(0).intervalLatencyHistogram = latencyHistogram(100, 500);
+    String tripReason = evaluator.evaluate(slowProgress);
+    assertNotNull(tripReason);
+    assertTrue(tripReason.contains("P99_LATENCY"), tripReason);
+  }
+
+  @Test
+  void throughputCollapseTripsWhileTheLoadIsStillThere() throws Exception {
+    StopConditionEvaluator evaluator =
+        evaluator(
+            "{'type':'THROUGHPUT_COLLAPSE','windowSeconds':10,"
+                + "'minFractionOfPeakThroughput':0.5}");
+
+    assertNull(evaluator.evaluate(progress(10, 100, 0, 10)), "sets the peak");
+    assertNull(evaluator.evaluate(progress(20, 60, 0, 10)), "above half the peak");
+    assertNotNull(evaluator.evaluate(progress(30, 20, 0, 10)));
+  }
+
+  @Test
+  void throughputDropWithLessLoadIsNotACollapse() throws Exception {
+    StopConditionEvaluator evaluator =
+        evaluator(
+            "{'type':'THROUGHPUT_COLLAPSE','windowSeconds':10,"
+                + "'minFractionOfPeakThroughput':0.5}");
+
+    assertNull(evaluator.evaluate(progress(10, 100, 0, 10)));
+    // the end of the run: the user journeys in flight drain away with the throughput
+    assertNull(evaluator.evaluate(progress(20, 20, 0, 4)));
+    assertNull(evaluator.evaluate(progress(30, 0, 0, 0)));
+  }
+
+  /** A histogram of the given number of latencies, all the same. */
+  private static Histogram latencyHistogram(int numValues, long latencyMillis) {
+    Histogram histogram = new Histogram(HistogramUtils.numberOfSignificantValueDigits);
+    histogram.recordValueWithCount(TimeUnit.MILLISECONDS.toNanos(latencyMillis), numValues);
+    return histogram;
+  }
+}
@@ -0,0 +1,122 @@
+package bio.terra.testrunner.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.testrunner.runner.config.TestScriptSpecification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TestScriptResultTest {
+  @TempDir File tempDir;
+
+  private TestScriptResult newTestScriptResult() throws Exception {
+    TestScriptSpecification testScriptSpecification =
+        new ObjectMapper()
+            .readValue(
+                "{\"name\":\"MyScript\",\"description\":\"my script\"}",
+                TestScriptSpecification.class);
+    return new TestScriptResult(testScriptSpecification, new File(tempDir, "results.jsonl"), 10);
+  }
+
+  private static UserJourneyResult completedResult(long elapsedMillis, boolean exceptionWasThrown) {
+    UserJourneyResult result = new UserJourneyResult("userJourney", "thread");
+    result.completed = true;
+    result.elapsedTimeNS = TimeUnit.MILLISECONDS.toNanos(elapsedMillis);
+    result.correctedElapsedTimeNS = result.elapsedTimeNS;
+    result.exceptionWasThrown = exceptionWasThrown;
+    return result;
+  }
+
+  private static int countResults(TestScriptResult testScriptResult) {
+    int numResults = 0;
+    Iterator<UserJourneyResult> results = testScriptResult.getUserJourneyResults().iterator();
+    for (; results.hasNext(); results.next()) {
+      numResults++;
+    }
+    return numResults;
+  }
+
+  @Test
+  void recordsResultsFromManyThreads() throws Exception {
+    TestScriptResult testScriptResult = newTestScriptResult();
+    int numThreads = 8;
+    int resultsPerThread = 1000;
+
+    List<Thread> threads = new ArrayList<>();
+    for (int threadCtr = 0; threadCtr < numThreads; threadCtr++) {
+      threads.add(
+          new Thread(
+              () -> {
+                for (int ctr = 1; ctr <= resultsPerThread; ctr++) {
+                  testScriptResult.userJourneyKickedOff();
+                  testScriptResult.userJourneyStarted();
+                  testScriptResult.record(completedResult(ctr, ctr % 10 == 0));
+                }
+              }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    testScriptResult.finish();
+
+    TestScriptResultSummary summary = testScriptResult.getSummary();
+    int numResults = numThreads * resultsPerThread;
+    assertEquals(numResults, summary.totalRun);
+    assertEquals(numResults, summary.numCompleted);
+    assertEquals(numResults / 10, summary.numExceptionsThrown);
+    // 1+2+...+1000 ms from each thread, summed exactly
+    double sumMillis = numThreads * resultsPerThread * (resultsPerThread + 1) / 2.0;
+    assertEquals(sumMillis, summary.elapsedTimeStatistics.sum, 1e-6);
+    assertEquals(sumMillis / numResults, summary.elapsedTimeStatistics.mean, 1e-9);
+    assertEquals(500, summary.elapsedTimeStatistics.median, 500 * 0.001);
+    assertEquals(numResults, countResults(testScriptResult));
+  }
+
+  @Test
+  void noCompletedResultsHaveNaNStatistics() throws Exception {
+    TestScriptResult testScriptResult = newTestScriptResult();
+    testScriptResult.finish();
+
+    TestScriptResultSummary summary = testScriptResult.getSummary();
+    assertEquals(0, summary.totalRun);
+    assertTrue(Double.isNaN(summary.elapsedTimeStatistics.median));
+    assertTrue(Double.isNaN(summary.elapsedTimeStatistics.max));
+    assertTrue(Double.isNaN(summary.correctedElapsedTimeStatistics.percentile99));
+    assertEquals(0, summary.correctedElapsedTimeStatistics.sum);
+  }
+
+  @Test
+  void userJourneysWithoutResultsAreRecordedAsNotCompleted() throws Exception {
+    TestScriptResult testScriptResult = newTestScriptResult();
+    testScriptResult.userJourneyKickedOff();
+    testScriptResult.userJourneyKickedOff();
+    testScriptResult.record(completedResult(5, false));
+    testScriptResult.finish();
+
+    TestScriptResultSummary summary = testScriptResult.getSummary();
+    assertEquals(2, summary.totalRun);
+    assertEquals(1, summary.numCompleted);
+    assertTrue(summary.isFailure);
+    assertEquals(2, countResults(testScriptResult));
+  }
+
+  @Test
+  void resultsRecordedAfterFinishAreIgnored() throws Exception {
+    TestScriptResult testScriptResult = newTestScriptResult();
+    testScriptResult.userJourneyKickedOff();
+    testScriptResult.record(completedResult(5, false));
+    testScriptResult.finish();
+    testScriptResult.record(completedResult(5, false));
+
+    assertEquals(1, testScriptResult.getSummary().numCompleted);
+    assertEquals(1, countResults(testScriptResult));
+  }
+}
@@ -0,0 +1,86 @@
+package bio.terra.testrunner.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.testrunner.runner.config.ClosedLoopSpecification;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ThinkTimeGeneratorTest {
+  private static final ObjectMapper objectMapper =
+      new ObjectMapper().enable(JsonParser.Feature.ALLOW_SINGLE_QUOTES);
+
+  private static ThinkTimeGenerator generator(String json, int virtualUserIndex) throws Exception {
+    ClosedLoopSpecification.ThinkTime specification =
+        objectMapper.readValue(json, ClosedLoopSpecification.ThinkTime.class);
+    specification.validate();
+    return new ThinkTimeGenerator(specification, virtualUserIndex);
+  }
+
+  private static List<Long> thinkTimes(ThinkTimeGenerator generator, int numThinkTimes) {
+    List<Long> thinkTimes = new ArrayList<>();
+    for (int ctr = 0; ctr < numThinkTimes; ctr++) {
+      thinkTimes.add(generator.nextThinkTimeMillis());
+    }
+    return thinkTimes;
+  }
+
+  @Test
+  void noThinkTime() throws Exception {
+    ThinkTimeGenerator generator = generator("{'distribution':'NONE'}", 0);
+    assertEquals(List.of(0L, 0L, 0L), thinkTimes(generator, 3));
+  }
+
+  @Test
+  void constantThinkTimeIsTheMean() throws Exception {
+    ThinkTimeGenerator generator = generator("{'distribution':'CONSTANT','meanMillis':250}", 0);
+    assertEquals(List.of(250L, 250L, 250L), thinkTimes(generator, 3));
+  }
+
+  @Test
+  void uniformThinkTimeStaysInRange() throws Exception {
+    ThinkTimeGenerator generator =
+        generator("{'distribution':'UNIFORM','minMillis':100,'maxMillis':200}", 0);
+    for (long thinkTimeMillis : thinkTimes(generator, 10000)) {
+      assertTrue(thinkTimeMillis >= 100 && thinkTimeMillis < 200, "think time: " + thinkTimeMillis);
+    }
+  }
+
+  @Test
+  void exponentialThinkTimeIsTruncatedAtTheDefaultBound() throws Exception {
+    ThinkTimeGenerator generator =
+        generator("{'distribution':'EXPONENTIAL','meanMillis':100,'randomSeed':7}", 0);
+    List<Long> thinkTimes = thinkTimes(generator, 100000);
+
+    long maxThinkTimeMillis = thinkTimes.stream().mapToLong(Long::longValue).max().getAsLong();
+    assertTrue(maxThinkTimeMillis <= 1000, "10x the mean: " + maxThinkTimeMillis);
+    // truncating at 10x the mean hardly moves the mean, but each sample is rounded down
+    double meanMillis = thinkTimes.stream().mapToLong(Long::longValue).average().getAsDouble();
+    assertEquals(99.5, meanMillis, 2);
+  }
+
+  @Test
+  void exponentialThinkTimeIsTruncatedAtTheMaximum() throws Exception {
+    ThinkTimeGenerator generator =
+        generator(
+            "{'distribution':'EXPONENTIAL','meanMillis':100,'maxMillis':150,'randomSeed':7}", 0);
+    List<Long> thinkTimes = thinkTimes(generator, 10000);
+
+    assertTrue(thinkTimes.stream().allMatch(thinkTimeMillis -> thinkTimeMillis <= 150));
+    assertTrue(thinkTimes.contains(150L), "samples beyond the maximum are capped");
+  }
+
+  @Test
+  void seededThinkTimesAreReproducibleForEachVirtualUser() throws Exception {
+    String json = "{'distribution':'EXPONENTIAL','meanMillis':100,'randomSeed':7}";
+    List<Long> firstUser = thinkTimes(generator(json, 0), 100);
+
+    assertEquals(firstUser, thinkTimes(generator(json, 0), 100));
+    assertNotEquals(firstUser, thinkTimes(generator(json, 1), 100));
+  }
+}
@@ -0,0 +1,95 @@
+package bio.terra.testrunner.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class UserJourneyTimeSeriesTest {
+  private static UserJourneyResult result(
+      double endSeconds, long elapsedMillis, boolean exceptionWasThrown) {
+    UserJourneyResult result = new UserJourneyResult("userJourney", "thread");
+    result.completed = true;
+    result.elapsedTimeNS = TimeUnit.MILLISECONDS.toNanos(elapsedMillis);
+    result.correctedElapsedTimeNS = result.elapsedTimeNS;
+    result.actualStartTimeNS =
+        (long) (endSeconds * TimeUnit.SECONDS.toNanos(1)) - result.elapsedTimeNS;
+    result.exceptionWasThrown = exceptionWasThrown;
+    return result;
+  }
+
+  @Test
+  void resultsAreCountedInTheWindowOfTheirEndTime() {
+    UserJourneyTimeSeries timeSeries = new UserJourneyTimeSeries("script", 10);
+    timeSeries.record(result(1, 100, false));
+    timeSeries.record(result(5, 300, true));
+    timeSeries.record(result(12, 200, false));
+    // nothing ends in the third window
+    timeSeries.record(result(35, 400, true));
+    timeSeries.finish();
+
+    assertEquals(List.of(0L, 10L, 20L, 30L), timeSeries.windowStartSeconds);
+    assertEquals(List.of(2, 1, 0, 1), timeSeries.completions);
+    assertEquals(List.of(1, 0, 0, 1), timeSeries.errors);
+  }
+
+  @Test
+  void emptyWindowsHaveZeroLatencies() {
+    UserJourneyTimeSeries timeSeries = new UserJourneyTimeSeries("script", 10);
+    timeSeries.record(result(1, 100, false));
+    timeSeries.record(result(25, 100, false));
+    timeSeries.finish();
+
+    assertEquals(List.of(1, 0, 1), timeSeries.completions);
+    assertEquals(0, timeSeries.p50Millis.get(1));
+    assertEquals(0, timeSeries.maxMillis.get(1));
+  }
+
+  @Test
+  void latencyPercentilesPerWindow() {
+    UserJourneyTimeSeries timeSeries = new UserJourneyTimeSeries("script", 60);
+    for (int elapsedMillis = 1; elapsedMillis <= 100; elapsedMillis++) {
+      timeSeries.record(result(30, elapsedMillis, false));
+    }
+    timeSeries.finish();
+
+    // the histograms keep 3 significant digits
+    assertEquals(50, timeSeries.p50Millis.get(0), 0.1);
+    assertEquals(90, timeSeries.p90Millis.get(0), 0.1);
+    assertEquals(99, timeSeries.p99Millis.get(0), 0.1);
+    assertEquals(100, timeSeries.maxMillis.get(0), 0.1);
+  }
+
+  @Test
+  void resultsSlightlyOutOfOrderAreCountedInTheirOwnWindow() {
+    UserJourneyTimeSeries timeSeries = new UserJourneyTimeSeries("script", 10);
+    timeSeries.record(result(15, 100, false));
+    // the window before the latest one is still open
+    timeSeries.record(result(9, 100, false));
+    timeSeries.finish();
+
+    assertEquals(List.of(1, 1), timeSeries.completions);
+  }
+
+  @Test
+  void stragglersAreCountedInTheOldestOpenWindow() {
+    UserJourneyTimeSeries timeSeries = new UserJourneyTimeSeries("script", 10);
+    timeSeries.record(result(1, 100, false));
+    // closes the first two windows
+    timeSeries.record(result(35, 100, false));
+    timeSeries.record(result(5, 100, true));
+    timeSeries.finish();
+
+    assertEquals(List.of(1, 0, 1, 1), timeSeries.completions);
+    assertEquals(List.of(0, 0, 1, 0), timeSeries.errors);
+  }
+
+  @Test
+  void noResultsMeansNoWindows() {
+    UserJourneyTimeSeries timeSeries = new UserJourneyTimeSeries("script", 10);
+    timeSeries.finish();
+
+    assertEquals(List.of(), timeSeries.windowStartSeconds);
+  }
+}
@@ -0,0 +1,54 @@
+package bio.terra.testrunner.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class WorkerPartitionTest {
+  @Test
+  void eachIndexIsOwnedByExactlyOneWorker() {
+    int numberOfWorkers = 3;
+    for (long index = 0; index < 100; index++) {
+      int numOwners = 0;
+      for (int workerIndex = 0; workerIndex < numberOfWorkers; workerIndex++) {
+        numOwners += new WorkerPartition(workerIndex, numberOfWorkers).owns(index) ? 1 : 0;
+      }
+      assertEquals(1, numOwners, "owners of index " + index);
+    }
+  }
+
+  @Test
+  void sharesAddUpToTheTotal() {
+    int numberOfWorkers = 4;
+    for (int total = 0; total < 20; total++) {
+      int sumOfShares = 0;
+      for (int workerIndex = 0; workerIndex < numberOfWorkers; workerIndex++) {
+        WorkerPartition partition = new WorkerPartition(workerIndex, numberOfWorkers);
+        int numOwned = 0;
+        for (long index = 0; index < total; index++) {
+          numOwned += partition.owns(index) ? 1 : 0;
+        }
+        assertEquals(numOwned, partition.shareOf(total), "share of worker " + workerIndex);
+        sumOfShares += partition.shareOf(total);
+      }
+      assertEquals(total, sumOfShares);
+    }
+  }
+
+  @Test
+  void singleNodeOwnsEverything() {
+    for (long index = 0; index < 10; index++) {
+      assertTrue(WorkerPartition.SINGLE_NODE.owns(index));
+    }
+    assertEquals(7, WorkerPartition.SINGLE_NODE.shareOf(7));
+  }
+
+  @Test
+  void invalidPartitionsAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new WorkerPartition(0, 0));
+    assertThrows(IllegalArgumentException.class, () -> new WorkerPartition(-1, 2));
+    assertThrows(IllegalArgumentException.class, () -> new WorkerPartition(2, 2));
+  }
+}